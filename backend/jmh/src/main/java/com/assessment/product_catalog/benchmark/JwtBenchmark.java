@@ -0,0 +1,49 @@
+package com.assessment.product_catalog.benchmark;
+
+import com.assessment.product_catalog.security.JWTUtil;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue at login and full signature verification, which the filter pays for each token
+ * the first time it is seen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JwtBenchmark {
+
+    private JWTUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = jwtUtil();
+        token = jwtUtil.generateToken("benchmark", "ADMIN", 0L);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("benchmark", "ADMIN", 0L);
+    }
+
+    @Benchmark
+    public DecodedJWT validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    static JWTUtil jwtUtil() {
+        JWTUtil jwtUtil = new JWTUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "benchmark-secret-benchmark-secret-benchmark");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", Duration.ofHours(12));
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
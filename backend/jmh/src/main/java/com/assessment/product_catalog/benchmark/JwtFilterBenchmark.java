@@ -0,0 +1,78 @@
+package com.assessment.product_catalog.benchmark;
+
+import com.assessment.product_catalog.repository.CatalogUserRepository;
+import com.assessment.product_catalog.security.JWTFilter;
+import com.assessment.product_catalog.security.JWTUtil;
+import com.assessment.product_catalog.security.TokenVersionCache;
+import com.assessment.product_catalog.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The JWT filter on an authenticated request with a replayed token, i.e. the steady state where the
+ * verified-token and token-version caches both hit, against a request without a token.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class JwtFilterBenchmark {
+
+    private static final FilterChain CHAIN = (request, response) -> { };
+
+    private JWTFilter filter;
+    private MockHttpServletRequest authenticated;
+    private MockHttpServletRequest anonymous;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Setup
+    public void setUp() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JWTUtil jwtUtil = JwtBenchmark.jwtUtil();
+
+        CatalogUserRepository catalogUserRepository = mock(CatalogUserRepository.class);
+        when(catalogUserRepository.findActiveTokenVersion("benchmark")).thenReturn(Optional.of(0L));
+
+        filter = new JWTFilter();
+        ReflectionTestUtils.setField(filter, "verifiedTokenCache", new VerifiedTokenCache(jwtUtil, meterRegistry, 1_000));
+        ReflectionTestUtils.setField(filter, "tokenVersionCache",
+                new TokenVersionCache(catalogUserRepository, Duration.ofHours(1)));
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+        filter.afterPropertiesSet();
+
+        authenticated = new MockHttpServletRequest("GET", "/api/products");
+        authenticated.addHeader("Authorization", "Bearer " + jwtUtil.generateToken("benchmark", "ADMIN", 0L));
+        anonymous = new MockHttpServletRequest("GET", "/api/products");
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void bearerToken() throws ServletException, IOException {
+        filter.doFilter(authenticated, response, CHAIN);
+    }
+
+    @Benchmark
+    public void noToken() throws ServletException, IOException {
+        filter.doFilter(anonymous, response, CHAIN);
+    }
+}
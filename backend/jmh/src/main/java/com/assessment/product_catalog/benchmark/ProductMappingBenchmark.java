@@ -0,0 +1,75 @@
+package com.assessment.product_catalog.benchmark;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.entity.Category;
+import com.assessment.product_catalog.entity.Product;
+import com.assessment.product_catalog.mapper.ProductMapper;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping and JSON serialization of a page of products, the CPU work behind every
+ * product list response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class ProductMappingBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private final ProductMapper productMapper = new ProductMapper();
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private List<Product> products;
+    private List<ProductResponse> responses;
+
+    @Setup
+    public void setUp() {
+        Category category = new Category();
+        category.setId(1L);
+        category.setName("Electronics");
+
+        LocalDateTime now = LocalDateTime.now();
+        products = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Product product = new Product();
+            product.setId((long) i);
+            product.setName("Product " + i);
+            product.setDescription("A reasonably descriptive text for product number " + i);
+            product.setPrice(new BigDecimal("19.99").add(BigDecimal.valueOf(i)));
+            product.setCategory(category);
+            product.setActive(true);
+            product.setCreatedAt(now);
+            product.setCreatedBy("admin");
+            product.setUpdatedAt(now);
+            product.setUpdatedBy("admin");
+            products.add(product);
+        }
+        responses = products.stream().map(productMapper::toResponse).toList();
+    }
+
+    @Benchmark
+    public List<ProductResponse> mapPage() {
+        List<ProductResponse> page = new ArrayList<>(products.size());
+        for (Product product : products) {
+            page.add(productMapper.toResponse(product));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public byte[] serializePage() {
+        return jsonMapper.writeValueAsBytes(responses);
+    }
+}
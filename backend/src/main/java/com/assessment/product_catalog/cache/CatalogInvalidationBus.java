@@ -0,0 +1,368 @@
+package com.assessment.product_catalog.cache;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.event.CatalogInvalidatedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import com.assessment.product_catalog.repository.ProductRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the in-process caches of several nodes sharing one database coherent. Each transaction that
+ * changes products sends the affected product and category ids with Postgres {@code NOTIFY}, which
+ * is delivered when, and only if, it commits. Every node listens on a dedicated connection and
+ * republishes other nodes' changes as a {@link CatalogInvalidatedEvent}. After losing that
+ * connection a node cannot know what it missed, so it invalidates everything once it is back.
+ */
+@Component
+public class CatalogInvalidationBus implements InitializingBean, DisposableBean, MeterBinder {
+
+    /** Ids per message, keeping the payload well under the 8000 byte NOTIFY limit. */
+    private static final int IDS_PER_MESSAGE = 300;
+
+    /** Products read back per query when applying a batch of messages. */
+    private static final int LOAD_CHUNK = 1000;
+
+    private final String node = UUID.randomUUID().toString();
+    private final String channel;
+    private final String url;
+    private final Properties connectionProperties = new Properties();
+    private final Duration reconnectDelay;
+    private final Duration checkInterval;
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonMapper jsonMapper;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate primaryTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    private volatile boolean running = true;
+    private volatile boolean connected;
+    private volatile Connection listening;
+    private Thread listener;
+
+    public CatalogInvalidationBus(@Value("${catalog.invalidation.channel}") String channel,
+                                  @Value("${spring.datasource.url}") String url,
+                                  @Value("${spring.datasource.username}") String username,
+                                  @Value("${spring.datasource.password}") String password,
+                                  @Value("${catalog.invalidation.reconnect-delay}") Duration reconnectDelay,
+                                  @Value("${catalog.invalidation.check-interval}") Duration checkInterval,
+                                  JdbcTemplate jdbcTemplate, JsonMapper jsonMapper,
+                                  ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.channel = channel;
+        this.url = url;
+        this.connectionProperties.setProperty("user", username);
+        this.connectionProperties.setProperty("password", password);
+        this.connectionProperties.setProperty("ApplicationName", "catalog-invalidation");
+        this.connectionProperties.setProperty("tcpKeepAlive", "true");
+        this.reconnectDelay = reconnectDelay;
+        this.checkInterval = checkInterval;
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonMapper = jsonMapper;
+        this.productRepository = productRepository;
+        // Not read-only: the rows must come from the primary, since the replica only waits for this node's commits
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Starts listening before the caches load at startup, so no change can fall between a cache's
+     * load and the first message it receives.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        Connection initial;
+        try {
+            initial = listen();
+        } catch (SQLException e) {
+            initial = null;
+        }
+        Connection first = initial;
+        listener = new Thread(() -> receive(first), "catalog-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    /**
+     * Collects the transaction's changes, to announce them in as few messages as possible when it commits.
+     */
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Outgoing outgoing = (Outgoing) TransactionSynchronizationManager.getResource(this);
+        if (outgoing == null) {
+            outgoing = new Outgoing();
+            TransactionSynchronizationManager.bindResource(this, outgoing);
+            TransactionSynchronizationManager.registerSynchronization(outgoing);
+        }
+        outgoing.add(event);
+    }
+
+    /**
+     * Opens the dedicated listening connection; package-private so tests can hand out their own.
+     */
+    Connection listen() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, connectionProperties);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN \"" + channel.replace("\"", "\"\"") + "\"");
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        listening = connection;
+        connected = true;
+        return connection;
+    }
+
+    private void receive(Connection connection) {
+        boolean missed = connection == null;
+        while (running) {
+            try {
+                if (connection == null) {
+                    connection = listen();
+                    if (missed) {
+                        flushes.increment();
+                        eventPublisher.publishEvent(CatalogInvalidatedEvent.everything());
+                    }
+                }
+                PGNotification[] notifications = connection.unwrap(PGConnection.class)
+                        .getNotifications((int) checkInterval.toMillis());
+                if (notifications != null && notifications.length > 0) {
+                    apply(notifications);
+                } else if (!connection.isValid((int) Math.max(1, checkInterval.toSeconds()))) {
+                    throw new SQLException("Invalidation listener connection lost");
+                }
+            } catch (SQLException | RuntimeException e) {
+                connected = false;
+                missed = true;
+                close(connection);
+                connection = null;
+                pause();
+            }
+        }
+        close(connection);
+    }
+
+    /**
+     * Applies everything delivered since the last call as one event, so a burst of writes elsewhere
+     * costs each cache one reload rather than one per message.
+     */
+    private void apply(PGNotification[] notifications) {
+        Set<Long> productIds = new LinkedHashSet<>();
+        Set<Long> categoryIds = new LinkedHashSet<>();
+        Map<Long, Long> countChanges = new HashMap<>();
+        boolean unreadable = false;
+        for (PGNotification notification : notifications) {
+            try {
+                Message message = jsonMapper.readValue(notification.getParameter(), Message.class);
+                if (!node.equals(message.getNode())) {
+                    received.increment();
+                    productIds.addAll(message.getProducts());
+                    categoryIds.addAll(message.getCategories());
+                    message.getCounts().forEach((categoryId, change) -> countChanges.merge(categoryId, change, Long::sum));
+                }
+            } catch (JacksonException e) {
+                unreadable = true;
+            }
+        }
+
+        if (unreadable) {
+            flushes.increment();
+            eventPublisher.publishEvent(CatalogInvalidatedEvent.everything());
+        } else if (!productIds.isEmpty() || !categoryIds.isEmpty()) {
+            eventPublisher.publishEvent(new CatalogInvalidatedEvent(productIds, categoryIds, load(productIds),
+                    countChanges));
+        }
+    }
+
+    private List<ProductResponse> load(Set<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        return primaryTransaction.execute(status -> {
+            List<ProductResponse> products = new ArrayList<>(ids.size());
+            for (int from = 0; from < ids.size(); from += LOAD_CHUNK) {
+                products.addAll(productRepository.findResponsesByIdIn(
+                        ids.subList(from, Math.min(ids.size(), from + LOAD_CHUNK))));
+            }
+            return products;
+        });
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(reconnectDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static void close(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // Already broken; nothing left to release
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("catalog.invalidation.connected", this, bus -> bus.connected ? 1 : 0)
+                .description("Whether this node is listening for other nodes' product changes")
+                .register(registry);
+        FunctionCounter.builder("catalog.invalidation.messages", sent, LongAdder::sum)
+                .description("Invalidation messages by direction")
+                .tag("direction", "sent")
+                .register(registry);
+        FunctionCounter.builder("catalog.invalidation.messages", received, LongAdder::sum)
+                .description("Invalidation messages by direction")
+                .tag("direction", "received")
+                .register(registry);
+        FunctionCounter.builder("catalog.invalidation.flushes", flushes, LongAdder::sum)
+                .description("Full invalidations after the listener may have missed messages")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        // Closing the socket wakes the listener from its wait
+        close(listening);
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    /**
+     * The changes of one transaction, sent from its before-commit callback on its own connection so
+     * Postgres delivers them together with the commit.
+     */
+    private final class Outgoing implements TransactionSynchronization {
+
+        final Set<Long> products = new LinkedHashSet<>();
+        final Set<Long> categories = new LinkedHashSet<>();
+        final Map<Long, Long> counts = new LinkedHashMap<>();
+
+        /**
+         * Also nets out the change in active products per category, the same way {@link ProductCounts}
+         * does for this node's own changes, since receivers only see the state after them.
+         */
+        void add(ProductChangedEvent event) {
+            products.add(event.getProductId());
+            categories.add(event.getProduct().getCategoryId());
+            if (event.getBefore() != null) {
+                categories.add(event.getBefore().getCategoryId());
+                counts.merge(event.getBefore().getCategoryId(), -1L, Long::sum);
+            }
+            if (Boolean.TRUE.equals(event.getProduct().getActive())) {
+                counts.merge(event.getProduct().getCategoryId(), 1L, Long::sum);
+            }
+        }
+
+        /**
+         * Sends the product ids, then the category ids, then the count changes, which take two ids'
+         * room each. At most {@link #IDS_PER_MESSAGE} go in one message, so a bulk change touching many
+         * categories stays within the limit too.
+         */
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            Message message = newMessage();
+            for (Long id : products) {
+                message = sendIfFull(message, 1);
+                message.getProducts().add(id);
+            }
+            for (Long id : categories) {
+                message = sendIfFull(message, 1);
+                message.getCategories().add(id);
+            }
+            for (Map.Entry<Long, Long> count : counts.entrySet()) {
+                if (count.getValue() != 0) {
+                    message = sendIfFull(message, 2);
+                    message.getCounts().put(count.getKey(), count.getValue());
+                }
+            }
+            if (size(message) > 0) {
+                send(message);
+            }
+        }
+
+        private Message sendIfFull(Message message, int room) {
+            if (size(message) + room <= IDS_PER_MESSAGE) {
+                return message;
+            }
+            send(message);
+            return newMessage();
+        }
+
+        private Message newMessage() {
+            return new Message(node, new ArrayList<>(), new ArrayList<>(), new LinkedHashMap<>());
+        }
+
+        private static int size(Message message) {
+            return message.getProducts().size() + message.getCategories().size() + 2 * message.getCounts().size();
+        }
+
+        private void send(Message message) {
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, jsonMapper.writeValueAsString(message));
+            sent.increment();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CatalogInvalidationBus.this);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class Message {
+        private String node;
+        private List<Long> products = List.of();
+        private List<Long> categories = List.of();
+        private Map<Long, Long> counts = Map.of();
+    }
+}
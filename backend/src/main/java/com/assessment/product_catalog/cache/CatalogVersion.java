@@ -0,0 +1,89 @@
+package com.assessment.product_catalog.cache;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.event.CatalogInvalidatedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version numbers for the catalog as a whole and for each category, bumped after every
+ * committed product change, from which read endpoints derive their ETags. Read the ETag before
+ * loading the data it describes: a change committing in between then only costs a spare 200.
+ */
+@Component
+public class CatalogVersion {
+
+    // Versions restart with the process, so tags from a previous run must never match
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong global = new AtomicLong();
+    private final ConcurrentHashMap<Long, AtomicLong> byCategory = new ConcurrentHashMap<>();
+    // Counts into every category tag, including categories this node has not seen change
+    private final AtomicLong resets = new AtomicLong();
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductResponse before = event.getBefore();
+        if (before != null) {
+            category(before.getCategoryId()).incrementAndGet();
+        }
+        ProductResponse product = event.getProduct();
+        if (Boolean.TRUE.equals(product.getActive())
+                && (before == null || !product.getCategoryId().equals(before.getCategoryId()))) {
+            category(product.getCategoryId()).incrementAndGet();
+        }
+        global.incrementAndGet();
+    }
+
+    /**
+     * Another node's changes arrive as the categories they touched, or as a reset when some may
+     * have been missed.
+     */
+    @EventListener
+    public void onCatalogInvalidated(CatalogInvalidatedEvent event) {
+        if (event.isEverything()) {
+            resets.incrementAndGet();
+        } else {
+            event.getCategoryIds().forEach(categoryId -> category(categoryId).incrementAndGet());
+        }
+        global.incrementAndGet();
+    }
+
+    /**
+     * Invalidates whole-catalog tags for a change that no product event describes.
+     */
+    public void bump() {
+        global.incrementAndGet();
+    }
+
+    public String etag() {
+        return epoch + "-" + global.get();
+    }
+
+    /**
+     * Tag for data drawn only from {@code categoryIds}; null or empty means the whole catalog.
+     * Per-category versions only grow, so their sum changes whenever any of them does.
+     */
+    public String etag(Collection<Long> categoryIds) {
+        if (categoryIds == null || categoryIds.isEmpty()) {
+            return etag();
+        }
+        long version = resets.get();
+        for (Long categoryId : categoryIds) {
+            AtomicLong categoryVersion = byCategory.get(categoryId);
+            version += categoryVersion == null ? 0 : categoryVersion.get();
+        }
+        return epoch + "-c" + version;
+    }
+
+    private AtomicLong category(Long categoryId) {
+        return byCategory.computeIfAbsent(categoryId, key -> new AtomicLong());
+    }
+}
@@ -0,0 +1,72 @@
+package com.assessment.product_catalog.cache;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.event.CatalogInvalidatedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import com.assessment.product_catalog.utils.CacheLoads;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of product responses keyed by id.
+ * Hit, miss and eviction counts are published as {@code cache.*} metrics tagged {@code cache=products}.
+ */
+@Component
+public class ProductCache implements MeterBinder {
+
+    private final AsyncCache<Long, ProductResponse> cache;
+
+    public ProductCache(@Value("${catalog.cache.product.max-size}") long maxSize,
+                        @Value("${catalog.cache.product.ttl}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Returns the cached response or loads it. Concurrent misses for the same id share one load.
+     */
+    public ProductResponse get(Long id, Function<Long, ProductResponse> loader) {
+        return CacheLoads.get(cache, id, loader);
+    }
+
+    public void invalidate(Long id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    /**
+     * Runs after commit so a reader can never re-cache the pre-commit row. An invalidation that
+     * races an in-flight load drops it from the cache; callers already waiting still get its result.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.getProductId());
+    }
+
+    @EventListener
+    public void onCatalogInvalidated(CatalogInvalidatedEvent event) {
+        if (event.isEverything()) {
+            cache.synchronous().invalidateAll();
+        } else {
+            cache.synchronous().invalidateAll(event.getProductIds());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "products");
+    }
+}
@@ -0,0 +1,166 @@
+package com.assessment.product_catalog.cache;
+
+import com.assessment.product_catalog.dto.ProductFacets;
+import com.assessment.product_catalog.dto.ProductFilter;
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.event.CatalogInvalidatedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import com.assessment.product_catalog.repository.ProductRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Active product counts, in total and per category, kept in memory from {@link ProductChangedEvent}s
+ * so reads never touch the database. A periodic reconciliation against Postgres corrects any drift.
+ */
+@Component
+public class ProductCounts implements MeterBinder {
+
+    private final ProductRepository productRepository;
+    private final CatalogVersion catalogVersion;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final LongAdder total = new LongAdder();
+    private final ConcurrentHashMap<Long, LongAdder> byCategory = new ConcurrentHashMap<>();
+    private final LongAdder corrections = new LongAdder();
+    // A lock rather than synchronized: on virtual threads the scheduler must not pin a carrier during the query
+    private final ReentrantLock reconciling = new ReentrantLock();
+    private boolean loaded; // guarded by reconciling
+
+    public ProductCounts(ProductRepository productRepository, CatalogVersion catalogVersion,
+                         PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.catalogVersion = catalogVersion;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public long total() {
+        return total.sum();
+    }
+
+    public long forCategory(Long categoryId) {
+        LongAdder count = byCategory.get(categoryId);
+        return count == null ? 0 : count.sum();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductResponse before = event.getBefore();
+        if (before != null) {
+            total.decrement();
+            category(before.getCategoryId()).decrement();
+        }
+        ProductResponse product = event.getProduct();
+        if (Boolean.TRUE.equals(product.getActive())) {
+            total.increment();
+            category(product.getCategoryId()).increment();
+        }
+    }
+
+    /**
+     * Applies the count changes other nodes sent with their writes. Only when messages may have been
+     * missed are the counters reloaded; any other drift is left to the scheduled reconciliation.
+     */
+    @EventListener
+    public void onCatalogInvalidated(CatalogInvalidatedEvent event) {
+        if (event.isEverything()) {
+            reconcile();
+            return;
+        }
+        event.getActiveCountChanges().forEach((categoryId, change) -> {
+            total.add(change);
+            category(categoryId).add(change);
+        });
+    }
+
+    /**
+     * Moves every counter to the database's value. Each correction is measured against the counter as
+     * it stood before the count query, so changes applied while the query runs are kept. A change
+     * that commits just ahead of the query but is applied after that reading is counted twice until
+     * the next run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${catalog.counts.reconcile-interval}",
+            initialDelayString = "${catalog.counts.reconcile-interval}")
+    public void reconcile() {
+        reconciling.lock();
+        try {
+            correctCounters();
+        } finally {
+            reconciling.unlock();
+        }
+    }
+
+    private void correctCounters() {
+        long totalBefore = total.sum();
+        Map<Long, Long> categoriesBefore = new HashMap<>();
+        byCategory.forEach((categoryId, count) -> categoriesBefore.put(categoryId, count.sum()));
+
+        List<ProductFacets.CategoryCount> actual = readOnlyTransaction.execute(status ->
+                productRepository.countActiveByCategory(ProductFilter.none()));
+
+        long actualTotal = 0;
+        long drift = 0;
+        Set<Long> seen = new HashSet<>();
+        for (ProductFacets.CategoryCount count : actual) {
+            seen.add(count.getCategoryId());
+            actualTotal += count.getCount();
+            drift += correct(category(count.getCategoryId()),
+                    categoriesBefore.getOrDefault(count.getCategoryId(), 0L), count.getCount());
+        }
+        for (Map.Entry<Long, Long> entry : categoriesBefore.entrySet()) {
+            if (!seen.contains(entry.getKey())) {
+                drift += correct(byCategory.get(entry.getKey()), entry.getValue(), 0);
+            }
+        }
+        correct(total, totalBefore, actualTotal);
+
+        // The first run loads the counters rather than correcting them
+        if (loaded) {
+            corrections.add(drift);
+        }
+        if (drift > 0) {
+            catalogVersion.bump();
+        }
+        loaded = true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("catalog.products.active", total, LongAdder::sum)
+                .description("Active products, as counted in memory")
+                .register(registry);
+        FunctionCounter.builder("catalog.products.count.corrections", corrections, LongAdder::sum)
+                .description("Drift removed from the per-category counts by reconciliation")
+                .register(registry);
+    }
+
+    private LongAdder category(Long categoryId) {
+        return byCategory.computeIfAbsent(categoryId, key -> new LongAdder());
+    }
+
+    private static long correct(LongAdder counter, long expected, long actual) {
+        counter.add(actual - expected);
+        return Math.abs(actual - expected);
+    }
+}
@@ -0,0 +1,222 @@
+package com.assessment.product_catalog.cache;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.event.CatalogInvalidatedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import com.assessment.product_catalog.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The whole active catalog as a ready-to-send JSON array, plus a gzip copy, held in direct buffers.
+ * Product changes schedule a rebuild after a debounce, so a burst of writes costs one rebuild; the
+ * finished snapshot replaces the old one in a single volatile write and readers never wait.
+ */
+@Component
+public class ProductSnapshot implements DisposableBean {
+
+    private final ProductRepository productRepository;
+    private final CatalogVersion catalogVersion;
+    private final JsonMapper jsonMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration debounce;
+    private final ScheduledExecutorService builder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-snapshot-build");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final Timer buildTimer;
+
+    private volatile Snapshot current;
+
+    public ProductSnapshot(ProductRepository productRepository, CatalogVersion catalogVersion, JsonMapper jsonMapper,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                           @Value("${catalog.snapshot.debounce}") Duration debounce) {
+        this.productRepository = productRepository;
+        this.catalogVersion = catalogVersion;
+        this.jsonMapper = jsonMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.debounce = debounce;
+
+        Gauge.builder("catalog.snapshot.bytes", this, snapshot -> snapshot.current == null
+                        ? 0 : snapshot.current.json.capacity() + snapshot.current.gzip.capacity())
+                .description("Off-heap bytes held by the catalog snapshot, plain and gzip")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.buildTimer = Timer.builder("catalog.snapshot.build")
+                .description("Time spent loading, serializing and compressing the catalog snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The latest snapshot, or null until the first build completes.
+     */
+    public Snapshot current() {
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleInitialBuild() {
+        builder.execute(this::rebuild);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        scheduleRebuild();
+    }
+
+    @EventListener
+    public void onCatalogInvalidated(CatalogInvalidatedEvent event) {
+        scheduleRebuild();
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            builder.schedule(this::rebuild, debounce.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Runs on the builder thread only. The flag is cleared before reading so a change that commits
+     * during the build schedules the next one.
+     */
+    void rebuild() {
+        rebuildScheduled.set(false);
+        // Tagged with the version seen before loading; newer rows under an older tag only cost a 200
+        String etag = catalogVersion.etag();
+
+        Snapshot previous = current;
+        current = buildTimer.record(() -> readOnlyTransaction.execute(status -> {
+            DirectBufferOutputStream json = new DirectBufferOutputStream(previous == null ? 0 : previous.json.limit());
+            DirectBufferOutputStream gzipped = new DirectBufferOutputStream(
+                    previous == null ? 0 : previous.gzip.limit());
+            int count = 0;
+            try (Stream<ProductResponse> products = productRepository.streamActive();
+                 GZIPOutputStream gzip = new GZIPOutputStream(gzipped, 64 * 1024)) {
+                byte[] separator = {'['};
+                for (ProductResponse product : (Iterable<ProductResponse>) products::iterator) {
+                    byte[] bytes = jsonMapper.writeValueAsBytes(product);
+                    json.write(separator);
+                    json.write(bytes);
+                    gzip.write(separator);
+                    gzip.write(bytes);
+                    separator[0] = ',';
+                    count++;
+                }
+                byte[] end = count == 0 ? new byte[] {'[', ']'} : new byte[] {']'};
+                json.write(end);
+                gzip.write(end);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new Snapshot(etag, count, json.toReadOnlyBuffer(), gzipped.toReadOnlyBuffer());
+        }));
+    }
+
+    @Override
+    public void destroy() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * One immutable catalog image. The buffers are shared by every reader, so hand out duplicates.
+     */
+    public static final class Snapshot {
+
+        private final String etag;
+        private final int products;
+        private final ByteBuffer json;
+        private final ByteBuffer gzip;
+
+        Snapshot(String etag, int products, ByteBuffer json, ByteBuffer gzip) {
+            this.etag = etag;
+            this.products = products;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public int getProducts() {
+            return products;
+        }
+
+        /**
+         * A private view of the plain or gzip bytes; its position moves as it is written out.
+         */
+        public ByteBuffer body(boolean gzipped) {
+            return (gzipped ? gzip : json).duplicate();
+        }
+    }
+
+    /**
+     * Starts at the previous snapshot's size plus an eighth, so a catalog that changed a little fits without
+     * growing, and doubles only when it does not. The finished buffer is handed out as it is, limited to the
+     * bytes written; the slack stays allocated until the next rebuild.
+     */
+    private static final class DirectBufferOutputStream extends OutputStream {
+
+        private static final int MIN_CAPACITY = 64 * 1024;
+
+        private ByteBuffer buffer;
+
+        DirectBufferOutputStream(int previousSize) {
+            buffer = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE,
+                    Math.max(MIN_CAPACITY, previousSize + previousSize / 8L)));
+        }
+
+        @Override
+        public void write(int b) {
+            ensureRemaining(1);
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            ensureRemaining(length);
+            buffer.put(bytes, offset, length);
+        }
+
+        ByteBuffer toReadOnlyBuffer() {
+            return buffer.flip().asReadOnlyBuffer();
+        }
+
+        private void ensureRemaining(int length) {
+            if (buffer.remaining() >= length) {
+                return;
+            }
+            long needed = (long) buffer.position() + length;
+            int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(needed, buffer.capacity() * 2L));
+            ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+            grown.put(buffer.flip());
+            buffer = grown;
+        }
+    }
+}
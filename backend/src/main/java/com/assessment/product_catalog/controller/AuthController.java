@@ -1,6 +1,8 @@
 package com.assessment.product_catalog.controller;
 
+import com.assessment.product_catalog.security.CatalogUserPrincipal;
 import com.assessment.product_catalog.security.JWTUtil;
+import com.assessment.product_catalog.security.LoginExecutor;
 import com.assessment.product_catalog.dto.CatalogUserRegistrationRequest;
 import com.assessment.product_catalog.dto.LoginRequest;
 import com.assessment.product_catalog.dto.LoginResponse;
@@ -8,13 +10,20 @@ import com.assessment.product_catalog.repository.CatalogUserRepository;
 import com.assessment.product_catalog.entity.CatalogUser;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 import static com.assessment.product_catalog.utils.Constants.USER_ROLE;
 
 /**
@@ -36,6 +45,12 @@ public class AuthController {
     @Autowired
     private AuthenticationManager authenticationManager;
 
+    @Autowired
+    private LoginExecutor loginExecutor;
+
+    @Value("${auth.login.retry-after-seconds}")
+    private int retryAfterSeconds;
+
     /**
      * On registration, we check for uniqueness
      * @param request - From the frontend, we only get the username and pw
@@ -60,18 +75,32 @@ public class AuthController {
         return ResponseEntity.ok("User registered successfully");
     }
 
+    /**
+     * Credentials are checked on the bounded {@link LoginExecutor}, which frees the request
+     * thread while BCrypt runs. When that pool is saturated the caller gets a 429 straight away.
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> loginHandler( @RequestBody LoginRequest loginRequest) {
-        try{
-            String username = loginRequest.getUsername();
+    public CompletableFuture<ResponseEntity<?>> loginHandler( @RequestBody LoginRequest loginRequest) {
+        try {
+            return loginExecutor.submit(() -> authenticate(loginRequest));
+        } catch (RejectedExecutionException rejected) {
+            return CompletableFuture.completedFuture(ResponseEntity
+                    .status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body("Too many login attempts in progress, please retry shortly."));
+        }
+    }
 
+    private ResponseEntity<?> authenticate(LoginRequest loginRequest) {
+        try{
             UsernamePasswordAuthenticationToken authInputToken =
-                    new UsernamePasswordAuthenticationToken(username, loginRequest.getPassword());
-            authenticationManager.authenticate(authInputToken);
+                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword());
+            Authentication authentication = authenticationManager.authenticate(authInputToken);
 
-            String token = jwtUtil.generateToken(username);
+            // The provider already loaded the user, reuse it instead of querying again
+            CatalogUserPrincipal user = (CatalogUserPrincipal) authentication.getPrincipal();
 
-            CatalogUser user = catalogUserRepository.findByUsername(username).orElseThrow();
+            String token = jwtUtil.generateToken(user.getUsername(), user.getGrantedRole(), user.getTokenVersion());
 
             return ResponseEntity.ok(new LoginResponse(token, user.getUsername(), user.getRole()));
         } catch(AuthenticationException authExc){
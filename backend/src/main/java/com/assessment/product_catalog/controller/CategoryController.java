@@ -1,10 +1,14 @@
 package com.assessment.product_catalog.controller;
 
-import com.assessment.product_catalog.entity.Category;
+import com.assessment.product_catalog.cache.CatalogVersion;
+import com.assessment.product_catalog.cache.ProductCounts;
+import com.assessment.product_catalog.dto.CategoryResponse;
+import com.assessment.product_catalog.mapper.CategoryMapper;
 import com.assessment.product_catalog.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -15,8 +19,24 @@ public class CategoryController {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private ProductCounts productCounts;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    /**
+     * Active categories, each with its count of active products read from memory. The product counts
+     * make the whole-catalog version the tag; categories themselves are maintained with SQL.
+     */
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        return ResponseEntity.ok(categoryRepository.findByActiveTrue());
+    public ResponseEntity<List<CategoryResponse>> getAllCategories(WebRequest request) {
+        return VersionedResponses.ok(request, catalogVersion.etag(), () -> categoryRepository.findByActiveTrue()
+                .stream()
+                .map(category -> categoryMapper.toResponse(category, productCounts.forCategory(category.getId())))
+                .toList());
     }
 }
@@ -1,14 +1,36 @@
 package com.assessment.product_catalog.controller;
 
+import com.assessment.product_catalog.cache.CatalogVersion;
+import com.assessment.product_catalog.cache.ProductSnapshot;
+import com.assessment.product_catalog.dto.BulkImportResponse;
+import com.assessment.product_catalog.dto.PriceAdjustmentRequest;
+import com.assessment.product_catalog.dto.ProductChangePage;
+import com.assessment.product_catalog.dto.ProductFilter;
+import com.assessment.product_catalog.dto.ProductPage;
+import com.assessment.product_catalog.dto.ProductPatchRequest;
 import com.assessment.product_catalog.dto.ProductRequest;
 import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.dto.ProductSortField;
 import com.assessment.product_catalog.service.ProductService;
+import com.assessment.product_catalog.utils.InvalidPageRequestException;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 @RestController
@@ -18,25 +40,147 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Value("${catalog.pagination.default-size}")
+    private int defaultPageSize;
+
+    @Value("${catalog.pagination.max-size}")
+    private int maxPageSize;
+
+    /**
+     * Lists active products, optionally filtered by any of several categories, an inclusive price
+     * range and a case-insensitive name match, sorted by id, updatedAt, price or name.
+     * {@code facets=true} adds per-category and per-price-bucket counts. Tagged with the version of
+     * the selected categories, so {@code If-None-Match} is answered with 304 without reaching the database.
+     */
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllActiveProducts());
+    public ResponseEntity<ProductPage> getAllProducts(
+            @RequestParam(required = false) List<Long> categoryId,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "CONTAINS") ProductFilter.NameMatch nameMatch,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "ASC") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "false") boolean facets,
+            WebRequest request) {
+        ProductFilter filter = new ProductFilter(categoryId, minPrice, maxPrice, name, nameMatch);
+        // Facets count across other categories too
+        String etag = facets ? catalogVersion.etag() : catalogVersion.etag(categoryId);
+        return VersionedResponses.ok(request, etag, () -> productService.getActiveProducts(filter,
+                ProductSortField.fromProperty(sort), direction(direction), cursor, pageSize(size),
+                facets));
     }
 
     @GetMapping("/count")
-    public ResponseEntity<Integer> getProductCount() {
-        return ResponseEntity.ok(productService.getActiveProductCount());
+    public ResponseEntity<Long> getProductCount(WebRequest request) {
+        return VersionedResponses.ok(request, catalogVersion.etag(), productService::getActiveProductCount);
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<ProductResponse>> getProductsByCategory(
-            @PathVariable Long categoryId) {
-        return ResponseEntity.ok(productService.getProductsByCategory(categoryId));
+    public ResponseEntity<ProductPage> getProductsByCategory(
+            @PathVariable Long categoryId,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "ASC") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            WebRequest request) {
+        return VersionedResponses.ok(request, catalogVersion.etag(List.of(categoryId)), () ->
+                productService.getActiveProducts(ProductFilter.category(categoryId), ProductSortField.fromProperty(sort),
+                        direction(direction), cursor, pageSize(size), false));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductResponse>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(productService.searchProducts(q, pageSize(size)));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<String>> suggestProductNames(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.suggestProductNames(prefix, pageSize(limit)));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(productService::exportActiveProducts);
     }
 
+    /**
+     * Every active product as one JSON array, copied to the socket from a prebuilt off-heap snapshot
+     * that trails writes by the rebuild debounce. Sent gzip-encoded when the client accepts it.
+     */
+    @GetMapping("/snapshot")
+    public void getSnapshot(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                            WebRequest request, HttpServletResponse response) throws IOException {
+        ProductSnapshot.Snapshot snapshot = productService.getCatalogSnapshot();
+        if (snapshot == null) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+
+        boolean gzip = acceptsGzip(acceptEncoding);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        // Each encoding is a different byte sequence, so each gets its own strong tag
+        if (request.checkNotModified(gzip ? snapshot.getEtag() + "-gzip" : snapshot.getEtag())) {
+            return;
+        }
+
+        ByteBuffer body = snapshot.body(gzip);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLengthLong(body.remaining());
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Committed product changes after {@code since}, oldest first and at most {@code size} of them.
+     * Without {@code since} the page only carries the current sequence to start from. A position this
+     * node no longer retains is answered with 410, after which the client reloads the catalog.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangePage> getChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(productService.getChanges(since, pageSize(size)));
+    }
+
+    /**
+     * The same changes pushed as server-sent {@code change} events with the sequence as event id, so a
+     * reconnecting client resumes through {@code Last-Event-ID}. A {@code resync} event ends the stream
+     * when the client has fallen out of the retained window.
+     */
+    @GetMapping(path = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) Long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return productService.subscribeToChanges(lastEventId != null ? lastEventId : since);
+    }
+
+    /**
+     * Tagged with the product's version, which {@code If-Match} on a later write can require.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProductById(id));
+    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id, WebRequest request) {
+        ProductResponse product = productService.getProductById(id);
+        String etag = ProductTags.etag(product);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(product);
     }
 
     @PostMapping
@@ -44,17 +188,87 @@ public class ProductController {
         return ResponseEntity.ok(productService.createOrReactivateProduct(request));
     }
 
+    /**
+     * Creates, updates or reactivates products by name and reports the outcome of every row.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkImportResponse> bulkUpsertProducts(@RequestBody List<ProductRequest> requests) {
+        return ResponseEntity.ok(productService.bulkUpsertProducts(requests));
+    }
+
+    /**
+     * With {@code If-Match} the update only applies to the tagged version and is otherwise answered
+     * with 412; without it the last write wins.
+     */
     @PutMapping("/{id}")
     public ResponseEntity<ProductResponse> updateProduct(
             @PathVariable Long id,
-            @Valid @RequestBody ProductRequest request
+            @Valid @RequestBody ProductRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        return tagged(productService.updateProduct(id, request, ProductTags.expectedVersion(ifMatch)));
+    }
+
+    /**
+     * Updates only the fields present in the body; the common price-only change is one statement.
+     * {@code If-Match} is checked in that same statement.
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<ProductResponse> patchProduct(
+            @PathVariable Long id,
+            @Valid @RequestBody ProductPatchRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
-        return ResponseEntity.ok(productService.updateProduct(id, request));
+        return tagged(productService.patchProduct(id, request, ProductTags.expectedVersion(ifMatch)));
+    }
+
+    /**
+     * Changes the price by a percentage of the current one, so concurrent adjustments compound
+     * instead of overwriting each other.
+     */
+    @PostMapping("/{id}/price-adjustment")
+    public ResponseEntity<ProductResponse> adjustPrice(
+            @PathVariable Long id,
+            @Valid @RequestBody PriceAdjustmentRequest request
+    ) {
+        return tagged(productService.adjustPrice(id, request.getPercent()));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
-        productService.deactivateProduct(id);
+    public ResponseEntity<Void> deleteProduct(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        productService.deactivateProduct(id, ProductTags.expectedVersion(ifMatch));
         return ResponseEntity.noContent().build();
     }
+
+    private static ResponseEntity<ProductResponse> tagged(ProductResponse product) {
+        return ResponseEntity.ok().eTag(ProductTags.etag(product)).body(product);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static Sort.Direction direction(String value) {
+        return Sort.Direction.fromOptionalString(value)
+                .orElseThrow(() -> new InvalidPageRequestException("Unsupported sort direction: " + value));
+    }
+
+    private int pageSize(Integer requested) {
+        if (requested == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(requested, maxPageSize));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.assessment.product_catalog.controller;
+
+import com.assessment.product_catalog.dto.ProductHistoryPage;
+import com.assessment.product_catalog.history.ProductHistoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Recorded product changes, newest first, paged by passing the previous page's {@code nextBefore}.
+ */
+@RestController
+@RequestMapping("/api/history")
+public class ProductHistoryController {
+
+    @Autowired
+    private ProductHistoryService productHistoryService;
+
+    @Value("${catalog.pagination.default-size}")
+    private int defaultPageSize;
+
+    @Value("${catalog.pagination.max-size}")
+    private int maxPageSize;
+
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<ProductHistoryPage> getProductHistory(
+            @PathVariable Long productId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(productHistoryService.getProductHistory(productId, before, pageSize(size)));
+    }
+
+    @GetMapping("/users/{username}")
+    public ResponseEntity<ProductHistoryPage> getUserHistory(
+            @PathVariable String username,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(productHistoryService.getUserHistory(username, before, pageSize(size)));
+    }
+
+    private int pageSize(Integer requested) {
+        if (requested == null) {
+            return defaultPageSize;
+        }
+        return Math.max(1, Math.min(requested, maxPageSize));
+    }
+}
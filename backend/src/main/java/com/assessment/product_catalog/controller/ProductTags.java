@@ -0,0 +1,36 @@
+package com.assessment.product_catalog.controller;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.service.StaleVersionException;
+
+/**
+ * Entity tags for a single product, taken from its optimistic-lock version.
+ */
+final class ProductTags {
+
+    private ProductTags() {
+    }
+
+    static String etag(ProductResponse product) {
+        return "\"" + product.getVersion() + "\"";
+    }
+
+    /**
+     * The version an {@code If-Match} header requires, or null when it is absent or {@code *}. A weak,
+     * malformed or multi-valued header can never match a single current version, so it fails at once.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new StaleVersionException();
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new StaleVersionException();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.assessment.product_catalog.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET support for endpoints tagged with a {@link com.assessment.product_catalog.cache.CatalogVersion}.
+ */
+final class VersionedResponses {
+
+    private VersionedResponses() {
+    }
+
+    /**
+     * Answers 304 when {@code If-None-Match} carries {@code etag}, before {@code body} runs; otherwise
+     * returns the body tagged with it. Clients must revalidate on every use.
+     */
+    static <T> ResponseEntity<T> ok(WebRequest request, String etag, Supplier<T> body) {
+        // checkNotModified has already written the ETag header
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(body.get());
+    }
+}
@@ -0,0 +1,38 @@
+package com.assessment.product_catalog.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Puts the Hikari pool behind a {@link ConcurrencyLimitedDataSource} sized to the pool itself and,
+     * when a {@link ReadReplica} is configured, routes read-only transactions to it. Static so that
+     * post-processing does not pull this configuration in early.
+     */
+    @Bean
+    static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(Environment environment,
+                                                                        ObjectProvider<ReadReplica> readReplica) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                ConcurrencyLimitedDataSource primary = new ConcurrencyLimitedDataSource(hikari, "primary",
+                        hikari.getMaximumPoolSize(),
+                        environment.getRequiredProperty("catalog.db.max-waiting", Integer.class),
+                        environment.getRequiredProperty("catalog.db.acquire-timeout", Duration.class));
+                ReadReplica replica = readReplica.getIfAvailable();
+                return replica == null ? primary : new ReadWriteRoutingDataSource(primary, replica);
+            }
+        };
+    }
+}
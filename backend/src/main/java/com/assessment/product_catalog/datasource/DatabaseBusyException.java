@@ -0,0 +1,18 @@
+package com.assessment.product_catalog.datasource;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * No connection could be granted in time. Spring wraps it on the way up; the status is still
+ * found on the cause, so the client gets a 503 it can retry instead of a 500.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Database is busy, please retry shortly")
+public class DatabaseBusyException extends SQLTransientConnectionException {
+
+    public DatabaseBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,216 @@
+package com.assessment.product_catalog.datasource;
+
+import com.assessment.product_catalog.event.CatalogInvalidatedEvent;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A Postgres read replica for read-only transactions, used only while it is known to hold every write
+ * this node has committed. A probe compares the primary's WAL position with the replica's replay
+ * position on a fixed delay; reads fall back to the primary while a write commits here, until a probe
+ * shows the replica has replayed it, once the replica trails by more than {@code max-lag}, and when it
+ * cannot be reached.
+ */
+@Component
+@ConditionalOnExpression("'${catalog.datasource.replica.url:}' != ''")
+public class ReadReplica implements TransactionExecutionListener, MeterBinder, DisposableBean {
+
+    // A standalone server stands in for an always caught-up replica
+    private static final String REPLAYED_QUERY =
+            "SELECT NOT pg_is_in_recovery() OR coalesce(pg_last_wal_replay_lsn() >= ?::pg_lsn, false)";
+
+    private final HikariDataSource pool;
+    private final ConcurrencyLimitedDataSource dataSource;
+    private final ObjectProvider<DataSource> primary;
+    private final long maxLagNanos;
+    private final Duration checkInterval;
+    private final ScheduledExecutorService prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "replica-lag-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicInteger committing = new AtomicInteger();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+
+    // System.nanoTime() readings; caughtUpAt: the replica held every commit made before this instant
+    private volatile long lastCommitAt;
+    private volatile long caughtUpAt;
+    private volatile long probedAt;
+    private volatile boolean usable;
+
+    public ReadReplica(@Value("${catalog.datasource.replica.url}") String url,
+                       @Value("${catalog.datasource.replica.username}") String username,
+                       @Value("${catalog.datasource.replica.password}") String password,
+                       @Value("${catalog.datasource.replica.maximum-pool-size}") int maximumPoolSize,
+                       @Value("${catalog.datasource.replica.max-lag}") Duration maxLag,
+                       @Value("${catalog.datasource.replica.lag-check-interval}") Duration checkInterval,
+                       @Value("${catalog.db.max-waiting}") int maxWaiting,
+                       @Value("${catalog.db.acquire-timeout}") Duration acquireTimeout,
+                       ObjectProvider<DataSource> primary) {
+        this.pool = new HikariDataSource();
+        this.pool.setPoolName("replica");
+        this.pool.setJdbcUrl(url);
+        this.pool.setUsername(username);
+        this.pool.setPassword(password);
+        this.pool.setMaximumPoolSize(maximumPoolSize);
+        this.pool.setReadOnly(true);
+        this.dataSource = new ConcurrencyLimitedDataSource(pool, "replica", maximumPoolSize, maxWaiting, acquireTimeout);
+        this.primary = primary;
+        this.maxLagNanos = maxLag.toNanos();
+        this.checkInterval = checkInterval;
+        this.lastCommitAt = System.nanoTime();
+        this.caughtUpAt = lastCommitAt - 1;
+        this.probedAt = lastCommitAt;
+    }
+
+    /**
+     * A connection for a read-only transaction, from the replica when it is current and from
+     * {@code fallback} otherwise. A replica that fails to connect is skipped until the next good probe.
+     */
+    public Connection getReadOnlyConnection(DataSource fallback) throws SQLException {
+        if (isCurrent()) {
+            try {
+                Connection connection = dataSource.getConnection();
+                replicaReads.increment();
+                return connection;
+            } catch (DatabaseBusyException e) {
+                throw e;
+            } catch (SQLException | RuntimeException e) {
+                usable = false;
+            }
+        }
+        primaryReads.increment();
+        return fallback.getConnection();
+    }
+
+    boolean isCurrent() {
+        long now = System.nanoTime();
+        return usable
+                && committing.get() == 0
+                && caughtUpAt - lastCommitAt > 0
+                && now - probedAt < 3 * checkInterval.toNanos();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startProbing() {
+        prober.scheduleWithFixedDelay(this::probe, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    void probe() {
+        long startedAt = System.nanoTime();
+        try (Connection primaryConnection = primary.getObject().getConnection();
+             Statement statement = primaryConnection.createStatement();
+             ResultSet position = statement.executeQuery("SELECT pg_current_wal_lsn()::text")) {
+            position.next();
+            String lsn = position.getString(1);
+
+            try (Connection replicaConnection = pool.getConnection();
+                 PreparedStatement replayed = replicaConnection.prepareStatement(REPLAYED_QUERY)) {
+                replayed.setString(1, lsn);
+                try (ResultSet result = replayed.executeQuery()) {
+                    result.next();
+                    recordProbe(startedAt, result.getBoolean(1));
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            usable = false;
+        }
+    }
+
+    /**
+     * Everything committed on the primary before {@code startedAt} is in the WAL position the probe read,
+     * so a replica that has replayed it is current as of that instant.
+     */
+    void recordProbe(long startedAt, boolean replayed) {
+        if (replayed) {
+            caughtUpAt = startedAt;
+        }
+        probedAt = startedAt;
+        usable = startedAt - caughtUpAt <= maxLagNanos;
+    }
+
+    @Override
+    public void beforeCommit(TransactionExecution transaction) {
+        if (!transaction.isReadOnly()) {
+            committing.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        if (!transaction.isReadOnly()) {
+            lastCommitAt = System.nanoTime();
+            committing.decrementAndGet();
+        }
+    }
+
+    /**
+     * Another node's commit is as new to the replica as one of ours until a probe shows otherwise.
+     * Runs before any cache drops the changed rows, so none is reloaded from the replica.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onCatalogInvalidated(CatalogInvalidatedEvent event) {
+        lastCommitAt = System.nanoTime();
+    }
+
+    /**
+     * Seconds since the replica was last seen holding every committed write, or 0 while it does.
+     */
+    double lagSeconds() {
+        long probed = probedAt;
+        return Math.max(0, probed - caughtUpAt) / 1e9;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        dataSource.bindTo(registry);
+        Gauge.builder("catalog.db.replica.lag", this, ReadReplica::lagSeconds)
+                .description("Time since the read replica was last seen replaying every primary commit")
+                .baseUnit("seconds")
+                .register(registry);
+        FunctionCounter.builder("catalog.db.reads", replicaReads, LongAdder::sum)
+                .description("Read-only transactions by the pool that served them")
+                .tag("pool", "replica")
+                .register(registry);
+        FunctionCounter.builder("catalog.db.reads", primaryReads, LongAdder::sum)
+                .description("Read-only transactions by the pool that served them")
+                .tag("pool", "primary")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        prober.shutdownNow();
+        pool.close();
+    }
+}
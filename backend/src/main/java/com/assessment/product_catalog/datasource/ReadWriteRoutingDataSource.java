@@ -0,0 +1,41 @@
+package com.assessment.product_catalog.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Sends read-only transactions to the {@link ReadReplica} and everything else to the primary. The
+ * physical connection is fetched lazily, after the transaction has marked it read-only, since
+ * Hibernate asks for it before Spring publishes the transaction's read-only flag.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements MeterBinder {
+
+    private final ConcurrencyLimitedDataSource primary;
+
+    public ReadWriteRoutingDataSource(ConcurrencyLimitedDataSource primary, ReadReplica replica) {
+        super(primary);
+        this.primary = primary;
+        setReadOnlyDataSource(new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return replica.getReadOnlyConnection(primary);
+            }
+
+            // The replica pool only knows its configured user, so other credentials go to the primary
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return primary.getConnection(username, password);
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        primary.bindTo(registry);
+    }
+}
@@ -0,0 +1,34 @@
+package com.assessment.product_catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResponse {
+    private long created;
+    private long updated;
+    private long reactivated;
+    private long failed;
+    private List<BulkProductResult> results;
+
+    public static BulkImportResponse of(List<BulkProductResult> results) {
+        Map<BulkProductResult.Status, Long> counts = results.stream()
+                .collect(Collectors.groupingBy(BulkProductResult::getStatus, Collectors.counting()));
+        Function<BulkProductResult.Status, Long> count = status -> counts.getOrDefault(status, 0L);
+
+        return new BulkImportResponse(
+                count.apply(BulkProductResult.Status.CREATED),
+                count.apply(BulkProductResult.Status.UPDATED),
+                count.apply(BulkProductResult.Status.REACTIVATED),
+                count.apply(BulkProductResult.Status.FAILED),
+                results);
+    }
+}
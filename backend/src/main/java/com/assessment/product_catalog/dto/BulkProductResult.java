@@ -0,0 +1,26 @@
+package com.assessment.product_catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one row of a bulk import. {@code index} is the row's position in the request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkProductResult {
+
+    public enum Status { CREATED, UPDATED, REACTIVATED, FAILED }
+
+    private int index;
+    private String name;
+    private Status status;
+    private Long id;
+    private String error;
+
+    public static BulkProductResult failed(int index, String name, String error) {
+        return new BulkProductResult(index, name, Status.FAILED, null, error);
+    }
+}
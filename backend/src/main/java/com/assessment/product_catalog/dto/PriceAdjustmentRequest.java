@@ -0,0 +1,20 @@
+package com.assessment.product_catalog.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class PriceAdjustmentRequest {
+
+    /**
+     * Relative change, e.g. {@code -15} for 15% off.
+     */
+    @NotNull(message = "Percent is required")
+    @DecimalMin(value = "-100", inclusive = false, message = "Percent must be greater than -100")
+    @DecimalMax(value = "1000", message = "Percent must not exceed 1000")
+    private BigDecimal percent;
+}
@@ -0,0 +1,23 @@
+package com.assessment.product_catalog.dto;
+
+import com.assessment.product_catalog.event.ProductChangedEvent.ChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One committed product change as served by the change feed. {@code product} is the state after the
+ * change; a deactivated product arrives with {@code active=false}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChange {
+    private long sequence;
+    private ChangeType type;
+    private ProductResponse product;
+    private String changedBy;
+    private LocalDateTime changedAt;
+}
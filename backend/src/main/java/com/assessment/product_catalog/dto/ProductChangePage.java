@@ -0,0 +1,20 @@
+package com.assessment.product_catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Changes after the requested sequence, oldest first. Pass {@code lastSequence} as the next
+ * {@code since}; {@code hasMore} means the batch was cut at the requested size.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangePage {
+    private List<ProductChange> changes;
+    private long lastSequence;
+    private boolean hasMore;
+}
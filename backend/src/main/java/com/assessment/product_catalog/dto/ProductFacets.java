@@ -0,0 +1,41 @@
+package com.assessment.product_catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Counts of active products per category and per price bucket. Each facet applies every filter
+ * except its own, so the counts show what selecting another category or price range would return.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacets {
+
+    private List<CategoryCount> categories;
+    private List<PriceBucketCount> prices;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryCount {
+        private Long categoryId;
+        private long count;
+    }
+
+    /**
+     * Products priced from {@code min} inclusive to {@code max} exclusive; {@code max} is null for the top bucket.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceBucketCount {
+        private BigDecimal min;
+        private BigDecimal max;
+        private long count;
+    }
+}
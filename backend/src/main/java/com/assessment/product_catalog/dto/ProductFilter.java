@@ -0,0 +1,36 @@
+package com.assessment.product_catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Optional restrictions on the active product listing; null or empty fields do not filter.
+ * Price bounds are inclusive and the name match ignores case.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilter {
+
+    public enum NameMatch { CONTAINS, STARTS_WITH }
+
+    private List<Long> categoryIds;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private String name;
+    private NameMatch nameMatch = NameMatch.CONTAINS;
+
+    public static ProductFilter none() {
+        return new ProductFilter();
+    }
+
+    public static ProductFilter category(Long categoryId) {
+        ProductFilter filter = new ProductFilter();
+        filter.setCategoryIds(List.of(categoryId));
+        return filter;
+    }
+}
@@ -0,0 +1,19 @@
+package com.assessment.product_catalog.dto;
+
+import com.assessment.product_catalog.entity.ProductHistory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * History entries, newest first. Pass {@code nextBefore} as the next {@code before}; it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductHistoryPage {
+    private List<ProductHistory> items;
+    private Long nextBefore;
+}
@@ -0,0 +1,24 @@
+package com.assessment.product_catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of products. {@code nextCursor} is null on the last page and {@code facets}
+ * is only filled in when requested.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage {
+    private List<ProductResponse> items;
+    private String nextCursor;
+    private ProductFacets facets;
+
+    public ProductPage(List<ProductResponse> items, String nextCursor) {
+        this(items, nextCursor, null);
+    }
+}
@@ -0,0 +1,46 @@
+package com.assessment.product_catalog.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Pattern;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * A partial product update with JSON merge patch semantics: fields left out keep their current value
+ * and an explicit null clears the description. Name, price and category are required, so a null there
+ * keeps the current value as well.
+ */
+@Data
+public class ProductPatchRequest {
+
+    @Pattern(regexp = "(?s).*\\S.*", message = "Product name must not be blank")
+    private String name;
+
+    private String description;
+
+    // Set whenever the body names the description, even as null; not a bean property, so clients cannot send it
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean descriptionPresent;
+
+    @DecimalMin(value = "0.01", message = "Price must be greater than 0")
+    private BigDecimal price;
+
+    private Long categoryId;
+
+    public void setDescription(String description) {
+        this.description = description;
+        this.descriptionPresent = true;
+    }
+
+    /**
+     * Whether the description is to be written, which for a null description means cleared.
+     */
+    public boolean includesDescription() {
+        return descriptionPresent;
+    }
+}
@@ -22,4 +22,5 @@ public class ProductResponse {
     private String createdBy;
     private LocalDateTime updatedAt;
     private String updatedBy;
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.assessment.product_catalog.dto;
+
+import com.assessment.product_catalog.utils.InvalidPageRequestException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Sort keys supported by the paginated product listing. Every key is paired with the
+ * product id as a tie-breaker so that the keyset is unique. Nulls of a nullable key sort
+ * after every value, as Postgres orders them by default.
+ */
+public enum ProductSortField {
+
+    ID("id", false, ProductResponse::getId, Long::valueOf),
+    UPDATED_AT("updatedAt", true, ProductResponse::getUpdatedAt, LocalDateTime::parse),
+    PRICE("price", false, ProductResponse::getPrice, BigDecimal::new),
+    NAME("name", false, ProductResponse::getName, value -> value);
+
+    private final String property;
+    private final boolean nullable;
+    private final Function<ProductResponse, Comparable<?>> extractor;
+    private final Function<String, Comparable<?>> parser;
+
+    ProductSortField(String property,
+                     boolean nullable,
+                     Function<ProductResponse, Comparable<?>> extractor,
+                     Function<String, Comparable<?>> parser) {
+        this.property = property;
+        this.nullable = nullable;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    public Comparable<?> valueOf(ProductResponse product) {
+        return extractor.apply(product);
+    }
+
+    public Comparable<?> parse(String value) {
+        return parser.apply(value);
+    }
+
+    public static ProductSortField fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equalsIgnoreCase(property))
+                .findFirst()
+                .orElseThrow(() -> new InvalidPageRequestException("Unsupported sort field: " + property));
+    }
+}
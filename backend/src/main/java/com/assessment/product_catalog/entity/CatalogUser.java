@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -47,6 +48,14 @@ public class CatalogUser {
     @Column(name = "last_login")
     private LocalDateTime lastLogin;
 
+    /**
+     * Embedded in every issued JWT; bumping it revokes all tokens issued before.
+     */
+    @Column(name = "token_version", nullable = false)
+    @ColumnDefault("0")
+    @NotNull
+    private Long tokenVersion = 0L;
+
 
     @PrePersist
     protected void onCreate() {
@@ -1,7 +1,9 @@
 package com.assessment.product_catalog.entity;
 
+import com.assessment.product_catalog.dto.ProductResponse;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,14 +12,85 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_active_id", columnList = "active, id"),
+        @Index(name = "idx_products_active_updated_at_id", columnList = "active, updated_at, id"),
+        @Index(name = "idx_products_category_active_id", columnList = "category_id, active, id"),
+        @Index(name = "idx_products_category_active_updated_at_id", columnList = "category_id, active, updated_at, id"),
+        @Index(name = "idx_products_active_category_price_id", columnList = "active, category_id, price, id"),
+        @Index(name = "idx_products_active_price_id", columnList = "active, price, id, category_id")
+})
+@SqlResultSetMapping(
+        name = Product.RESPONSE_MAPPING,
+        classes = @ConstructorResult(targetClass = ProductResponse.class, columns = {
+                @ColumnResult(name = "id", type = Long.class),
+                @ColumnResult(name = "name", type = String.class),
+                @ColumnResult(name = "description", type = String.class),
+                @ColumnResult(name = "price", type = BigDecimal.class),
+                @ColumnResult(name = "category_name", type = String.class),
+                @ColumnResult(name = "category_id", type = Long.class),
+                @ColumnResult(name = "active", type = Boolean.class),
+                @ColumnResult(name = "created_at", type = LocalDateTime.class),
+                @ColumnResult(name = "created_by", type = String.class),
+                @ColumnResult(name = "updated_at", type = LocalDateTime.class),
+                @ColumnResult(name = "updated_by", type = String.class),
+                @ColumnResult(name = "version", type = Long.class)
+        }))
+@SqlResultSetMapping(
+        name = Product.PATCH_MAPPING,
+        classes = {
+                @ConstructorResult(targetClass = ProductResponse.class, columns = {
+                        @ColumnResult(name = "id", type = Long.class),
+                        @ColumnResult(name = "name", type = String.class),
+                        @ColumnResult(name = "description", type = String.class),
+                        @ColumnResult(name = "price", type = BigDecimal.class),
+                        @ColumnResult(name = "category_name", type = String.class),
+                        @ColumnResult(name = "category_id", type = Long.class),
+                        @ColumnResult(name = "active", type = Boolean.class),
+                        @ColumnResult(name = "created_at", type = LocalDateTime.class),
+                        @ColumnResult(name = "created_by", type = String.class),
+                        @ColumnResult(name = "updated_at", type = LocalDateTime.class),
+                        @ColumnResult(name = "updated_by", type = String.class),
+                        @ColumnResult(name = "version", type = Long.class)
+                }),
+                @ConstructorResult(targetClass = ProductResponse.class, columns = {
+                        @ColumnResult(name = "old_id", type = Long.class),
+                        @ColumnResult(name = "old_name", type = String.class),
+                        @ColumnResult(name = "old_description", type = String.class),
+                        @ColumnResult(name = "old_price", type = BigDecimal.class),
+                        @ColumnResult(name = "old_category_name", type = String.class),
+                        @ColumnResult(name = "old_category_id", type = Long.class),
+                        @ColumnResult(name = "old_active", type = Boolean.class),
+                        @ColumnResult(name = "old_created_at", type = LocalDateTime.class),
+                        @ColumnResult(name = "old_created_by", type = String.class),
+                        @ColumnResult(name = "old_updated_at", type = LocalDateTime.class),
+                        @ColumnResult(name = "old_updated_by", type = String.class),
+                        @ColumnResult(name = "old_version", type = Long.class)
+                })
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
 
+    /**
+     * Maps native product rows joined with their category name straight onto {@link ProductResponse}.
+     */
+    public static final String RESPONSE_MAPPING = "ProductResponseMapping";
+
+    /**
+     * Maps a row holding a product's new columns and, prefixed {@code old_}, its previous ones onto
+     * two {@link ProductResponse}s, after and before.
+     */
+    public static final String PATCH_MAPPING = "ProductPatchMapping";
+
+    /**
+     * Pooled sequence rather than IDENTITY so Hibernate can assign ids up front and
+     * batch inserts; each sequence call reserves {@code allocationSize} ids.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -33,7 +106,7 @@ public class Product {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal price;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
     @NotNull(message = "Category is required")
     private Category category;
@@ -53,6 +126,14 @@ public class Product {
     @Column(name = "updated_by")
     private String updatedBy;
 
+    /**
+     * Optimistic-lock version, bumped by every write; a concurrent write that read an older one fails.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,63 @@
+package com.assessment.product_catalog.entity;
+
+import com.assessment.product_catalog.event.ProductChangedEvent.ChangeType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One committed product change: who made it, when, and the product as it was afterwards. Rows are
+ * only ever inserted, in batches, by {@code ProductHistoryWriter}.
+ */
+@Entity
+@Table(name = "product_history", indexes = {
+        @Index(name = "idx_product_history_product_id_id", columnList = "product_id, id"),
+        @Index(name = "idx_product_history_actor_id", columnList = "actor, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductHistory {
+
+    /**
+     * Assigned by the database at insert, so it orders rows from all nodes by when they were recorded.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private ChangeType changeType;
+
+    @Column(nullable = false)
+    private String actor;
+
+    /**
+     * When the change committed.
+     */
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    private String name;
+
+    @Column(length = 1000)
+    private String description;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal price;
+
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    private Boolean active;
+
+    private Long version;
+}
@@ -0,0 +1,51 @@
+package com.assessment.product_catalog.event;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Published for product changes committed by another node, which this node's
+ * {@link ProductChangedEvent} listeners never saw. Listeners that keep derived state drop or reload
+ * what it names; when {@link #isEverything()} is set, changes may have been missed and all of it is stale.
+ */
+@Getter
+public class CatalogInvalidatedEvent {
+
+    private final boolean everything;
+
+    private final Set<Long> productIds;
+
+    private final Set<Long> categoryIds;
+
+    /**
+     * Current state of the changed products, read from the primary after the change committed.
+     */
+    private final List<ProductResponse> products;
+
+    /**
+     * Net change in active products per category, as counted by the nodes that made the changes.
+     */
+    private final Map<Long, Long> activeCountChanges;
+
+    public CatalogInvalidatedEvent(Set<Long> productIds, Set<Long> categoryIds, List<ProductResponse> products,
+                                   Map<Long, Long> activeCountChanges) {
+        this(false, productIds, categoryIds, products, activeCountChanges);
+    }
+
+    private CatalogInvalidatedEvent(boolean everything, Set<Long> productIds, Set<Long> categoryIds,
+                                    List<ProductResponse> products, Map<Long, Long> activeCountChanges) {
+        this.everything = everything;
+        this.productIds = productIds;
+        this.categoryIds = categoryIds;
+        this.products = products;
+        this.activeCountChanges = activeCountChanges;
+    }
+
+    public static CatalogInvalidatedEvent everything() {
+        return new CatalogInvalidatedEvent(true, Set.of(), Set.of(), List.of(), Map.of());
+    }
+}
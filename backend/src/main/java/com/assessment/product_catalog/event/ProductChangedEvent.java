@@ -0,0 +1,43 @@
+package com.assessment.product_catalog.event;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+import lombok.Getter;
+
+/**
+ * Published by {@code ProductService} for every product mutation. Listeners that keep derived
+ * state should use {@code @TransactionalEventListener} so they only see committed changes.
+ */
+@Getter
+public class ProductChangedEvent {
+
+    public enum ChangeType { CREATED, REACTIVATED, UPDATED, DEACTIVATED }
+
+    private final ChangeType type;
+
+    /**
+     * State of the product after the change.
+     */
+    private final ProductResponse product;
+
+    /**
+     * State of the product before the change, or null when it was not active before it.
+     */
+    private final ProductResponse before;
+
+    private final String actor;
+
+    public ProductChangedEvent(ChangeType type, ProductResponse product, String actor) {
+        this(type, product, null, actor);
+    }
+
+    public ProductChangedEvent(ChangeType type, ProductResponse product, ProductResponse before, String actor) {
+        this.type = type;
+        this.product = product;
+        this.before = before;
+        this.actor = actor;
+    }
+
+    public Long getProductId() {
+        return product.getId();
+    }
+}
@@ -0,0 +1,373 @@
+package com.assessment.product_catalog.feed;
+
+import com.assessment.product_catalog.dto.ProductChange;
+import com.assessment.product_catalog.dto.ProductChangePage;
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.event.CatalogInvalidatedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent.ChangeType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Committed product changes in commit order, numbered by a sequence and kept in a bounded ring for
+ * catch-up. Subscribers get them pushed over server-sent events, written on a small delivery pool.
+ * <p>
+ * A write to a client that has stopped reading blocks once its socket buffer is full, until the
+ * container's own write timeout. A watchdog evicts any subscriber whose write has taken longer than
+ * {@code catalog.changes.write-timeout} and adds a thread to the pool in place of the one it holds,
+ * so stalled clients cannot starve the others. The client reconnects with its last event id.
+ * <p>
+ * Sequences start from the startup time, so they keep rising across restarts and a position issued
+ * before one, or by another node, is answered with a resync instead of silently skipping changes.
+ * Changes committed by other nodes are appended as they arrive over the invalidation bus; when the bus
+ * reports that changes may have been missed, every earlier position is answered with a resync too.
+ */
+@Component
+public class ProductChangeFeed implements MeterBinder, DisposableBean {
+
+    private static final int DELIVERY_BATCH = 500;
+
+    /** Threads added for stalled writes at most; beyond that, stalled writes take pool threads again. */
+    private static final int MAX_STALLED_THREADS = 64;
+
+    private final ProductChange[] retained;
+    private final long firstSequence = System.currentTimeMillis() * 1000;
+    private final Duration subscriptionTimeout;
+    private final long writeTimeoutNanos;
+    private final ScheduledThreadPoolExecutor delivery;
+    private final ScheduledThreadPoolExecutor watchdog;
+    private final AtomicInteger stalledThreads = new AtomicInteger();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long lastSequence = firstSequence; // guarded by lock
+    private long resyncBefore = firstSequence; // guarded by lock; earlier positions may have missed changes
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final LongAdder resyncs = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ProductChangeFeed(@Value("${catalog.changes.retention}") int retention,
+                             @Value("${catalog.changes.heartbeat}") Duration heartbeat,
+                             @Value("${catalog.changes.subscription-timeout}") Duration subscriptionTimeout,
+                             @Value("${catalog.changes.delivery-threads}") int deliveryThreads,
+                             @Value("${catalog.changes.write-timeout}") Duration writeTimeout) {
+        this.retained = new ProductChange[retention];
+        this.subscriptionTimeout = subscriptionTimeout;
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        AtomicInteger threads = new AtomicInteger();
+        this.delivery = new ScheduledThreadPoolExecutor(deliveryThreads, runnable -> {
+            Thread thread = new Thread(runnable, "product-change-feed-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Its own thread, so it keeps running when every delivery thread is blocked
+        this.watchdog = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "product-change-feed-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Keeps idle streams from being cut by proxies, and finds clients that went away
+        watchdog.scheduleWithFixedDelay(() -> subscribers.forEach(Subscriber::heartbeat),
+                heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        long check = Math.max(1, writeTimeout.toMillis() / 4);
+        watchdog.scheduleWithFixedDelay(this::evictStalled, check, check, TimeUnit.MILLISECONDS);
+    }
+
+    public long lastSequence() {
+        lock.readLock().lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            append(event.getType(), event.getProduct(), event.getActor());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        subscribers.forEach(Subscriber::schedule);
+    }
+
+    /**
+     * Appends the products another node changed in their current state. Whether one was created or
+     * reactivated is not known here, so active products are reported as updated.
+     */
+    @EventListener
+    public void onCatalogInvalidated(CatalogInvalidatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.isEverything()) {
+                // Skips a sequence, so even a client that was up to date is told to resync
+                resyncBefore = ++lastSequence;
+            }
+            for (ProductResponse product : event.getProducts()) {
+                append(Boolean.TRUE.equals(product.getActive()) ? ChangeType.UPDATED : ChangeType.DEACTIVATED,
+                        product, product.getUpdatedBy());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        subscribers.forEach(Subscriber::schedule);
+    }
+
+    private void append(ChangeType type, ProductResponse product, String actor) {
+        long sequence = ++lastSequence;
+        retained[slot(sequence)] = new ProductChange(sequence, type, product, actor, LocalDateTime.now());
+    }
+
+    /**
+     * Up to {@code limit} changes after {@code since}, oldest first.
+     *
+     * @throws ResyncRequiredException when changes after {@code since} are no longer all retained
+     */
+    public ProductChangePage changesSince(long since, int limit) {
+        lock.readLock().lock();
+        try {
+            checkRetained(since);
+            long to = Math.min(lastSequence, since + limit);
+            List<ProductChange> changes = new ArrayList<>((int) (to - since));
+            for (long sequence = since + 1; sequence <= to; sequence++) {
+                changes.add(retained[slot(sequence)]);
+            }
+            return new ProductChangePage(changes, to, to < lastSequence);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Streams changes after {@code since}, or from now on when it is null, until the subscription
+     * times out and the client reconnects with its last event id.
+     *
+     * @throws ResyncRequiredException when changes after {@code since} are no longer all retained
+     */
+    public SseEmitter subscribe(Long since) {
+        return subscribe(since, new SseEmitter(subscriptionTimeout.toMillis()));
+    }
+
+    SseEmitter subscribe(Long since, SseEmitter emitter) {
+        long position;
+        lock.readLock().lock();
+        try {
+            if (since != null) {
+                checkRetained(since);
+            }
+            position = since != null ? since : lastSequence;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Subscriber subscriber = new Subscriber(emitter, position);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        try {
+            // Held until the handler returns, then written and flushed along with the response headers,
+            // so the client knows it is subscribed before any change arrives
+            emitter.send(SseEmitter.event().comment("from " + position));
+        } catch (IOException e) {
+            subscribers.remove(subscriber);
+            emitter.completeWithError(e);
+        }
+        subscriber.schedule();
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("catalog.changes.subscribers", this, ProductChangeFeed::subscriberCount)
+                .description("Clients subscribed to the product change stream")
+                .register(registry);
+        FunctionCounter.builder("catalog.changes.resyncs", resyncs, LongAdder::sum)
+                .description("Change feed requests from a position that is no longer retained")
+                .register(registry);
+        FunctionCounter.builder("catalog.changes.evictions", evictions, LongAdder::sum)
+                .description("Subscribers dropped because a write to them did not finish in time")
+                .register(registry);
+        Gauge.builder("catalog.changes.stalled.threads", stalledThreads, AtomicInteger::get)
+                .description("Delivery threads still blocked writing to evicted subscribers")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        watchdog.shutdownNow();
+        delivery.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void evictStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.writingSince;
+            if (since != 0 && now - since > writeTimeoutNanos && subscriber.evict()) {
+                evictions.increment();
+                if (stalledThreads.incrementAndGet() <= MAX_STALLED_THREADS) {
+                    delivery.setCorePoolSize(delivery.getCorePoolSize() + 1);
+                    delivery.prestartCoreThread();
+                }
+            }
+        }
+    }
+
+    /**
+     * Called by the thread of an evicted subscriber once its write has returned, failed or not.
+     */
+    private void releaseStalled() {
+        if (stalledThreads.getAndDecrement() <= MAX_STALLED_THREADS) {
+            delivery.setCorePoolSize(delivery.getCorePoolSize() - 1);
+        }
+    }
+
+    private void checkRetained(long since) {
+        long oldest = Math.max(resyncBefore, lastSequence - retained.length);
+        if (since < oldest || since > lastSequence) {
+            resyncs.increment();
+            throw new ResyncRequiredException(since);
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) ((sequence - firstSequence) % retained.length);
+    }
+
+    /**
+     * At most one delivery per subscriber runs at a time; a change arriving meanwhile is picked up
+     * by the re-check when that delivery finishes.
+     */
+    private final class Subscriber {
+
+        final SseEmitter emitter;
+        final AtomicBoolean running = new AtomicBoolean();
+        final AtomicBoolean evicted = new AtomicBoolean();
+        volatile long position;
+        volatile boolean heartbeatDue;
+        /** When the write in progress started, or 0 between writes. */
+        volatile long writingSince;
+
+        Subscriber(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+
+        void schedule() {
+            if (!evicted.get() && running.compareAndSet(false, true)) {
+                delivery.execute(this::deliver);
+            }
+        }
+
+        void heartbeat() {
+            heartbeatDue = true;
+            schedule();
+        }
+
+        /**
+         * Stops all further deliveries; false if that already happened.
+         */
+        boolean evict() {
+            if (!evicted.compareAndSet(false, true)) {
+                return false;
+            }
+            subscribers.remove(this);
+            return true;
+        }
+
+        private void deliver() {
+            try {
+                if (position < lastSequence()) {
+                    sendChanges();
+                } else if (heartbeatDue) {
+                    send(SseEmitter.event().comment("heartbeat"));
+                }
+                heartbeatDue = false;
+            } catch (ResyncRequiredException e) {
+                resync();
+                return;
+            } catch (IOException | IllegalStateException e) {
+                // The client has gone; the emitter's error callback deregisters it
+                subscribers.remove(this);
+                return;
+            } finally {
+                running.set(false);
+                if (evicted.get()) {
+                    releaseStalled();
+                    // Ends the stream; the client reconnects from its last event id
+                    emitter.complete();
+                }
+            }
+            if (position < lastSequence()) {
+                schedule();
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) throws IOException {
+            writingSince = System.nanoTime();
+            try {
+                emitter.send(event);
+            } finally {
+                writingSince = 0;
+            }
+        }
+
+        private void sendChanges() throws IOException {
+            ProductChangePage page;
+            do {
+                page = changesSince(position, DELIVERY_BATCH);
+                for (ProductChange change : page.getChanges()) {
+                    if (evicted.get()) {
+                        return;
+                    }
+                    send(SseEmitter.event()
+                            .id(Long.toString(change.getSequence()))
+                            .name("change")
+                            .data(change));
+                }
+                position = page.getLastSequence();
+            } while (page.isHasMore());
+        }
+
+        private void resync() {
+            subscribers.remove(this);
+            try {
+                send(SseEmitter.event().name("resync").data(lastSequence()));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.assessment.product_catalog.feed;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * The requested sequence is no longer retained, or was never issued by this node. The client has to
+ * reload the catalog and continue from the current sequence.
+ */
+@ResponseStatus(value = HttpStatus.GONE, reason = "Change feed position expired, resync required")
+public class ResyncRequiredException extends RuntimeException {
+
+    public ResyncRequiredException(long since) {
+        super("No changes retained after sequence " + since);
+    }
+}
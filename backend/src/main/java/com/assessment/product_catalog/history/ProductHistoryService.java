@@ -0,0 +1,50 @@
+package com.assessment.product_catalog.history;
+
+import com.assessment.product_catalog.dto.ProductHistoryPage;
+import com.assessment.product_catalog.entity.ProductHistory;
+import com.assessment.product_catalog.repository.ProductHistoryRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Reads the recorded history. It trails commits by however long {@link ProductHistoryWriter} takes to
+ * flush them, normally a few milliseconds.
+ */
+@Service
+@Timed(value = "catalog.service", histogram = true)
+public class ProductHistoryService {
+
+    private final ProductHistoryRepository productHistoryRepository;
+
+    public ProductHistoryService(ProductHistoryRepository productHistoryRepository) {
+        this.productHistoryRepository = productHistoryRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public ProductHistoryPage getProductHistory(Long productId, Long before, int size) {
+        return page(before, size, (from, limit) ->
+                productHistoryRepository.findByProductIdAndIdLessThanOrderByIdDesc(productId, from, limit));
+    }
+
+    @Transactional(readOnly = true)
+    public ProductHistoryPage getUserHistory(String actor, Long before, int size) {
+        return page(before, size, (from, limit) ->
+                productHistoryRepository.findByActorAndIdLessThanOrderByIdDesc(actor, from, limit));
+    }
+
+    private static ProductHistoryPage page(Long before, int size,
+                                           BiFunction<Long, Limit, List<ProductHistory>> query) {
+        // Fetch one extra row to learn whether another page exists
+        List<ProductHistory> rows = query.apply(before != null ? before : Long.MAX_VALUE, Limit.of(size + 1));
+        if (rows.size() <= size) {
+            return new ProductHistoryPage(rows, null);
+        }
+        List<ProductHistory> items = rows.subList(0, size);
+        return new ProductHistoryPage(items, items.get(size - 1).getId());
+    }
+}
@@ -0,0 +1,313 @@
+package com.assessment.product_catalog.history;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.entity.ProductHistory;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records every committed product change in {@code product_history} without adding the insert to the
+ * write path. A transaction reserves queue slots for its changes before it commits and hands them to a
+ * background thread once it has, which inserts whatever has accumulated as one JDBC batch.
+ * <p>
+ * When the queue has no room, because the writer is behind or the database is slow, the transaction
+ * inserts its own history rows before committing instead. Writes then pay for the history again, but
+ * nothing is dropped and no request waits for queue space. On shutdown the writer keeps going until
+ * every reserved slot has been written, for up to {@code catalog.history.shutdown-timeout}.
+ * <p>
+ * A batch that fails because the database is unreachable or busy is retried whole. Any other failure is
+ * down to the rows, so the batch is split until each row that cannot be inserted is on its own; those rows
+ * are logged and dropped, and the rest are written.
+ */
+@Component
+public class ProductHistoryWriter implements MeterBinder, DisposableBean {
+
+    static final String INSERT = """
+            INSERT INTO product_history (product_id, change_type, actor, changed_at, name, description, price,
+                                         category_id, active, version)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final Logger log = LoggerFactory.getLogger(ProductHistoryWriter.class);
+
+    private static final long POLL_MILLIS = 100;
+
+    private final int capacity;
+    private final int batchSize;
+    private final Duration retryDelay;
+    private final Duration shutdownTimeout;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+
+    /** One permit per change not yet written, whether still in its transaction, queued or in a batch. */
+    private final Semaphore slots;
+    private final BlockingQueue<ProductHistory> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder inline = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile boolean stopping;
+
+    public ProductHistoryWriter(@Value("${catalog.history.queue-capacity}") int capacity,
+                                @Value("${catalog.history.batch-size}") int batchSize,
+                                @Value("${catalog.history.retry-delay}") Duration retryDelay,
+                                @Value("${catalog.history.shutdown-timeout}") Duration shutdownTimeout,
+                                JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.retryDelay = retryDelay;
+        this.shutdownTimeout = shutdownTimeout;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.slots = new Semaphore(capacity);
+        this.writer = new Thread(this::run, "product-history-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(List.of(entry(event)));
+            return;
+        }
+        Outgoing outgoing = (Outgoing) TransactionSynchronizationManager.getResource(this);
+        if (outgoing == null) {
+            outgoing = new Outgoing();
+            TransactionSynchronizationManager.bindResource(this, outgoing);
+            TransactionSynchronizationManager.registerSynchronization(outgoing);
+        }
+        outgoing.events.add(event);
+    }
+
+    /**
+     * Queues already committed changes, or inserts them right away when there is no room.
+     */
+    private void record(List<ProductHistory> entries) {
+        if (!stopping && slots.tryAcquire(entries.size())) {
+            queue.addAll(entries);
+            queued.add(entries.size());
+        } else {
+            insert(entries);
+            inline.add(entries.size());
+        }
+    }
+
+    private void run() {
+        List<ProductHistory> batch = new ArrayList<>(batchSize);
+        while (!stopping || pending() > 0) {
+            try {
+                if (batch.isEmpty()) {
+                    ProductHistory first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    // Takes whatever built up meanwhile, so batches grow with the write rate
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                flush(batch);
+            } catch (DataAccessException | TransactionException e) {
+                // Keeps what is left of the batch and its slots; new changes go inline once the queue is full
+                failures.increment();
+                if (!pause()) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes the entries and removes them, halving them on failures that are down to the data until the
+     * rows that cannot be inserted are found. Rethrows transient failures with the unwritten entries left.
+     */
+    private void flush(List<ProductHistory> entries) {
+        try {
+            transaction.executeWithoutResult(status -> insert(entries));
+        } catch (DataAccessException | TransactionException e) {
+            if (isTransient(e)) {
+                throw e;
+            }
+            if (entries.size() == 1) {
+                ProductHistory entry = entries.get(0);
+                log.error("Dropping {} history entry of product {} from {}", entry.getChangeType(),
+                        entry.getProductId(), entry.getChangedAt(), e);
+                rejected.increment();
+                slots.release();
+                entries.clear();
+                return;
+            }
+            // Each call removes what it wrote or dropped, so the second one gets the other half
+            flush(entries.subList(0, entries.size() / 2));
+            flush(entries);
+            return;
+        }
+        written.add(entries.size());
+        batches.increment();
+        slots.release(entries.size());
+        entries.clear();
+    }
+
+    private static boolean isTransient(RuntimeException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException || e instanceof CannotCreateTransactionException;
+    }
+
+    private void insert(List<ProductHistory> entries) {
+        jdbcTemplate.batchUpdate(INSERT, entries, entries.size(), (statement, entry) -> {
+            statement.setLong(1, entry.getProductId());
+            statement.setString(2, entry.getChangeType().name());
+            statement.setString(3, entry.getActor());
+            statement.setTimestamp(4, Timestamp.valueOf(entry.getChangedAt()));
+            statement.setString(5, entry.getName());
+            statement.setString(6, entry.getDescription());
+            statement.setBigDecimal(7, entry.getPrice());
+            statement.setObject(8, entry.getCategoryId(), Types.BIGINT);
+            statement.setObject(9, entry.getActive(), Types.BOOLEAN);
+            statement.setObject(10, entry.getVersion(), Types.BIGINT);
+        });
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(retryDelay.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Changes reserved or queued but not yet written.
+     */
+    public int pending() {
+        return capacity - slots.availablePermits();
+    }
+
+    private double lagSeconds() {
+        ProductHistory oldest = queue.peek();
+        return oldest == null ? 0 : Duration.between(oldest.getChangedAt(), LocalDateTime.now()).toMillis() / 1000.0;
+    }
+
+    private static ProductHistory entry(ProductChangedEvent event) {
+        ProductResponse product = event.getProduct();
+        return new ProductHistory(null, product.getId(), event.getType(), event.getActor(), LocalDateTime.now(),
+                product.getName(), product.getDescription(), product.getPrice(), product.getCategoryId(),
+                product.getActive(), product.getVersion());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("catalog.history.pending", this, ProductHistoryWriter::pending)
+                .description("Product changes committed or committing but not yet in product_history")
+                .register(registry);
+        Gauge.builder("catalog.history.lag", this, ProductHistoryWriter::lagSeconds)
+                .description("Age of the oldest queued history entry")
+                .baseUnit("seconds")
+                .register(registry);
+        FunctionCounter.builder("catalog.history.entries", queued, LongAdder::sum)
+                .description("History entries by how they were written")
+                .tag("path", "queued")
+                .register(registry);
+        FunctionCounter.builder("catalog.history.entries", inline, LongAdder::sum)
+                .description("History entries by how they were written")
+                .tag("path", "inline")
+                .register(registry);
+        FunctionCounter.builder("catalog.history.written", written, LongAdder::sum)
+                .description("Queued history entries inserted by the background writer")
+                .register(registry);
+        FunctionCounter.builder("catalog.history.batches", batches, LongAdder::sum)
+                .description("Batches inserted by the background writer")
+                .register(registry);
+        FunctionCounter.builder("catalog.history.failures", failures, LongAdder::sum)
+                .description("Batch inserts that failed transiently, retried after catalog.history.retry-delay")
+                .register(registry);
+        FunctionCounter.builder("catalog.history.rejected", rejected, LongAdder::sum)
+                .description("History entries dropped because the database refused them")
+                .register(registry);
+    }
+
+    /**
+     * Runs before the connection pool closes, since this bean depends on it.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        stopping = true;
+        writer.join(shutdownTimeout.toMillis());
+        writer.interrupt();
+    }
+
+    /**
+     * The changes of one transaction. Room for them is reserved before it commits, and if there is none
+     * they are inserted as part of it; they are only queued once it has committed.
+     */
+    private final class Outgoing implements TransactionSynchronization {
+
+        final List<ProductChangedEvent> events = new ArrayList<>();
+        List<ProductHistory> reserved;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            List<ProductHistory> entries = events.stream().map(ProductHistoryWriter::entry).toList();
+            if (!stopping && slots.tryAcquire(entries.size())) {
+                reserved = entries;
+            } else {
+                insert(entries);
+                inline.add(entries.size());
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ProductHistoryWriter.this);
+            if (reserved == null) {
+                return;
+            }
+            if (status == STATUS_COMMITTED) {
+                queue.addAll(reserved);
+                queued.add(reserved.size());
+            } else {
+                slots.release(reserved.size());
+            }
+        }
+    }
+}
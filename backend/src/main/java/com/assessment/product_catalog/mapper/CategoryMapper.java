@@ -0,0 +1,26 @@
+package com.assessment.product_catalog.mapper;
+
+import com.assessment.product_catalog.dto.CategoryResponse;
+import com.assessment.product_catalog.entity.Category;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CategoryMapper {
+
+    public CategoryResponse toResponse(Category category, long productCount) {
+
+        CategoryResponse response = new CategoryResponse();
+
+        response.setId(category.getId());
+        response.setName(category.getName());
+        response.setDescription(category.getDescription());
+        response.setActive(category.getActive());
+        response.setProductCount(productCount);
+        response.setCreatedAt(category.getCreatedAt());
+        response.setCreatedBy(category.getCreatedBy());
+        response.setUpdatedAt(category.getUpdatedAt());
+        response.setUpdatedBy(category.getUpdatedBy());
+
+        return response;
+    }
+}
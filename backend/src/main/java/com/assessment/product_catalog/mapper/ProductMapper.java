@@ -26,6 +26,7 @@ public class ProductMapper {
         response.setCreatedBy(product.getCreatedBy());
         response.setUpdatedAt(product.getUpdatedAt());
         response.setUpdatedBy(product.getUpdatedBy());
+        response.setVersion(product.getVersion());
 
         return response;
     }
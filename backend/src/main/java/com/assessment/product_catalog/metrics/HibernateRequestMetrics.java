@@ -0,0 +1,107 @@
+package com.assessment.product_catalog.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hibernate work per HTTP request: JDBC statements prepared, entities loaded and flushes, recorded
+ * as {@code hibernate.request.*} distributions tagged with the method and URI pattern. Counting is a
+ * thread-local increment, so unlike {@code hibernate.generate_statistics} it can stay on in production.
+ * Work done off the request thread, such as the async export body, is not attributed.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class HibernateRequestMetrics extends OncePerRequestFilter implements HibernatePropertiesCustomizer {
+
+    private static final ThreadLocal<long[]> CURRENT = new ThreadLocal<>();
+
+    private static final int STATEMENTS = 0;
+    private static final int LOADS = 1;
+    private static final int FLUSHES = 2;
+
+    private final MeterRegistry meterRegistry;
+
+    public HibernateRequestMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+            count(STATEMENTS);
+            return sql;
+        });
+        hibernateProperties.put(JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(new Integrator() {
+            @Override
+            public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                                  SessionFactoryImplementor sessionFactory) {
+                EventListenerRegistry listeners = sessionFactory.getEventListenerRegistry();
+                listeners.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> count(LOADS));
+                listeners.appendListeners(EventType.FLUSH, (FlushEventListener) event -> count(FLUSHES));
+            }
+        }));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long[] counts = new long[3];
+        CURRENT.set(counts);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            CURRENT.remove();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            record("hibernate.request.statements", "JDBC statements prepared while handling a request",
+                    request.getMethod(), uri, counts[STATEMENTS]);
+            record("hibernate.request.entity.loads", "Entities loaded while handling a request",
+                    request.getMethod(), uri, counts[LOADS]);
+            record("hibernate.request.flushes", "Session flushes while handling a request",
+                    request.getMethod(), uri, counts[FLUSHES]);
+        }
+    }
+
+    private void record(String name, String description, String method, String uri, long amount) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(amount);
+    }
+
+    private static void count(int counter) {
+        long[] counts = CURRENT.get();
+        if (counts != null) {
+            counts[counter]++;
+        }
+    }
+}
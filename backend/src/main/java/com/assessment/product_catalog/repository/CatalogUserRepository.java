@@ -2,6 +2,8 @@ package com.assessment.product_catalog.repository;
 
 import com.assessment.product_catalog.entity.CatalogUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +11,7 @@ import java.util.Optional;
 @Repository
 public interface CatalogUserRepository extends JpaRepository<CatalogUser, Long> {
     Optional<CatalogUser> findByUsername(String username);
+
+    @Query("select u.tokenVersion from CatalogUser u where u.username = :username and u.active = true")
+    Optional<Long> findActiveTokenVersion(@Param("username") String username);
 }
\ No newline at end of file
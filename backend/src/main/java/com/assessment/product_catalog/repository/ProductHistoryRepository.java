@@ -0,0 +1,14 @@
+package com.assessment.product_catalog.repository;
+
+import com.assessment.product_catalog.entity.ProductHistory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductHistoryRepository extends JpaRepository<ProductHistory, Long> {
+    List<ProductHistory> findByProductIdAndIdLessThanOrderByIdDesc(Long productId, Long before, Limit limit);
+    List<ProductHistory> findByActorAndIdLessThanOrderByIdDesc(String actor, Long before, Limit limit);
+}
@@ -1,18 +1,94 @@
 package com.assessment.product_catalog.repository;
 
+import com.assessment.product_catalog.dto.ProductResponse;
 import com.assessment.product_catalog.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.NativeQuery;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    /**
+     * Projects products joined with their category straight onto {@link ProductResponse}, so reads
+     * cost one statement and never hydrate managed entities. Alias the product {@code p}.
+     */
+    String SELECT_RESPONSE = "select new com.assessment.product_catalog.dto.ProductResponse("
+            + "p.id, p.name, p.description, p.price, c.name, c.id, p.active, "
+            + "p.createdAt, p.createdBy, p.updatedAt, p.updatedBy, p.version) "
+            + "from Product p join p.category c ";
+
     List<Product> findByActiveTrue();
     List<Product> findByCategoryIdAndActiveTrue(Long categoryId);
     Optional<Product> findByNameAndActiveTrue(String name);
     Optional<Product> findByName(String name);
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByNameIn(Collection<String> names);
     
-    int countByActiveTrue();
+
+    @Query(SELECT_RESPONSE + "where p.id = :id")
+    Optional<ProductResponse> findResponseById(@Param("id") Long id);
+
+    @Query(SELECT_RESPONSE + "where p.id in :ids")
+    List<ProductResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Creates the product, or reactivates it if an inactive product with the same name exists,
+     * in one round trip. Returns empty when an active product already has that name or the
+     * category does not exist.
+     */
+    @Transactional
+    @NativeQuery(value = """
+            WITH upserted AS (
+                INSERT INTO products (id, name, description, price, category_id, active,
+                                      created_at, created_by, updated_at, updated_by)
+                SELECT nextval('products_seq'), :name, CAST(:description AS varchar), :price, c.id, true,
+                       :now, :username, :now, :username
+                FROM categories c
+                WHERE c.id = :categoryId
+                ON CONFLICT (name) DO UPDATE
+                    SET description = EXCLUDED.description,
+                        price = EXCLUDED.price,
+                        category_id = EXCLUDED.category_id,
+                        active = true,
+                        updated_at = EXCLUDED.updated_at,
+                        updated_by = EXCLUDED.updated_by,
+                        version = products.version + 1
+                    WHERE products.active = false
+                RETURNING *
+            )
+            SELECT u.id, u.name, u.description, u.price, c.name AS category_name, u.category_id, u.active,
+                   u.created_at, u.created_by, u.updated_at, u.updated_by, u.version
+            FROM upserted u
+            JOIN categories c ON c.id = u.category_id
+            """, sqlResultSetMapping = Product.RESPONSE_MAPPING)
+    Optional<ProductResponse> upsertByName(@Param("name") String name,
+                                           @Param("description") String description,
+                                           @Param("price") BigDecimal price,
+                                           @Param("categoryId") Long categoryId,
+                                           @Param("username") String username,
+                                           @Param("now") LocalDateTime now);
+
+    /**
+     * Streams active products for bulk consumers. Must be consumed inside a transaction; the fetch
+     * size keeps Postgres returning rows through a cursor instead of materializing the whole result
+     * set in the driver.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_RESPONSE + "where p.active = true order by p.id")
+    Stream<ProductResponse> streamActive();
 }
\ No newline at end of file
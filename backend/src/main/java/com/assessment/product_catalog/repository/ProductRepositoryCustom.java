@@ -0,0 +1,55 @@
+package com.assessment.product_catalog.repository;
+
+import com.assessment.product_catalog.dto.ProductFacets;
+import com.assessment.product_catalog.dto.ProductFilter;
+import com.assessment.product_catalog.dto.ProductPatchRequest;
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.dto.ProductSortField;
+import com.assessment.product_catalog.utils.ProductCursor;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Keyset page of active products matching {@code filter}, ordered by {@code sortField} then id.
+     * Rows are located by seeking past {@code after} rather than by offset, so every page costs the
+     * same. Rows are projected onto {@link ProductResponse} in the same statement that joins the category.
+     */
+    List<ProductResponse> findActivePage(ProductFilter filter, ProductSortField sortField, Sort.Direction direction,
+                                         ProductCursor after, int limit);
+
+    /**
+     * Active products matching {@code filter}, ignoring its categories, counted per category.
+     */
+    List<ProductFacets.CategoryCount> countActiveByCategory(ProductFilter filter);
+
+    /**
+     * Active products matching {@code filter}, ignoring its price range, counted per price bucket.
+     * {@code bounds} are the ascending bucket edges; the first bucket starts at zero and the last is open-ended.
+     */
+    List<ProductFacets.PriceBucketCount> countActiveByPriceBucket(ProductFilter filter, List<BigDecimal> bounds);
+
+    /**
+     * Sets the non-null fields of {@code patch}, the description whenever it names one (null clears it),
+     * the update stamp and the next version, in one statement that writes only those columns and returns
+     * the row as it was and as it is now. A new category is checked by the same statement instead of
+     * being loaded. Returns empty when the product or the
+     * category does not exist, or when {@code expectedVersion} is set and is no longer current.
+     */
+    Optional<PatchedProduct> patch(Long id, ProductPatchRequest patch, Long expectedVersion, String username,
+                                   LocalDateTime now);
+
+    @Getter
+    @AllArgsConstructor
+    class PatchedProduct {
+        private final ProductResponse before;
+        private final ProductResponse after;
+    }
+}
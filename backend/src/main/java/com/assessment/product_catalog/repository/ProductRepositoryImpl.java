@@ -0,0 +1,276 @@
+package com.assessment.product_catalog.repository;
+
+import com.assessment.product_catalog.dto.ProductFacets;
+import com.assessment.product_catalog.dto.ProductFilter;
+import com.assessment.product_catalog.dto.ProductPatchRequest;
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.dto.ProductSortField;
+import com.assessment.product_catalog.entity.Category;
+import com.assessment.product_catalog.entity.Product;
+import com.assessment.product_catalog.utils.ProductCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductResponse> findActivePage(ProductFilter filter, ProductSortField sortField,
+                                                Sort.Direction direction, ProductCursor after, int limit) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductResponse> query = cb.createQuery(ProductResponse.class);
+        Root<Product> product = query.from(Product.class);
+        Join<Product, Category> category = product.join("category");
+
+        List<Predicate> predicates = matching(cb, product, filter, true, true);
+        if (after != null) {
+            predicates.add(seekPast(cb, product, sortField, direction, after));
+        }
+
+        List<Order> orders = new ArrayList<>();
+        if (sortField != ProductSortField.ID) {
+            orders.add(order(cb, product.get(sortField.getProperty()), direction, sortField.isNullable()));
+        }
+        orders.add(order(cb, product.get("id"), direction, false));
+
+        query.select(cb.construct(ProductResponse.class,
+                        product.get("id"), product.get("name"), product.get("description"), product.get("price"),
+                        category.get("name"), category.get("id"), product.get("active"),
+                        product.get("createdAt"), product.get("createdBy"),
+                        product.get("updatedAt"), product.get("updatedBy"), product.get("version")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(orders);
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<ProductFacets.CategoryCount> countActiveByCategory(ProductFilter filter) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductFacets.CategoryCount> query = cb.createQuery(ProductFacets.CategoryCount.class);
+        Root<Product> product = query.from(Product.class);
+
+        // The foreign key column is enough; grouping never touches the categories table
+        Path<Long> categoryId = product.get("category").get("id");
+
+        query.select(cb.construct(ProductFacets.CategoryCount.class, categoryId, cb.count(product)))
+                .where(matching(cb, product, filter, false, true).toArray(Predicate[]::new))
+                .groupBy(categoryId)
+                .orderBy(cb.asc(categoryId));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /**
+     * Counts every bucket in one pass with conditional sums rather than grouping by a bucket
+     * expression, which Postgres cannot match against a parameterized select list.
+     */
+    @Override
+    public List<ProductFacets.PriceBucketCount> countActiveByPriceBucket(ProductFilter filter, List<BigDecimal> bounds) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Product> product = query.from(Product.class);
+        Path<BigDecimal> price = product.get("price");
+
+        List<Selection<?>> sums = new ArrayList<>();
+        for (int bucket = 0; bucket <= bounds.size(); bucket++) {
+            List<Predicate> inBucket = new ArrayList<>();
+            if (bucket > 0) {
+                inBucket.add(cb.greaterThanOrEqualTo(price, bounds.get(bucket - 1)));
+            }
+            if (bucket < bounds.size()) {
+                inBucket.add(cb.lessThan(price, bounds.get(bucket)));
+            }
+            sums.add(cb.sum(cb.<Long>selectCase()
+                    .when(cb.and(inBucket.toArray(Predicate[]::new)), 1L)
+                    .otherwise(0L)));
+        }
+
+        query.select(cb.tuple(sums.toArray(Selection[]::new)))
+                .where(matching(cb, product, filter, true, false).toArray(Predicate[]::new));
+
+        Tuple counts = entityManager.createQuery(query).getSingleResult();
+
+        List<ProductFacets.PriceBucketCount> buckets = new ArrayList<>();
+        for (int bucket = 0; bucket <= bounds.size(); bucket++) {
+            Number count = (Number) counts.get(bucket);
+            buckets.add(new ProductFacets.PriceBucketCount(
+                    bucket == 0 ? BigDecimal.ZERO : bounds.get(bucket - 1),
+                    bucket < bounds.size() ? bounds.get(bucket) : null,
+                    count == null ? 0 : count.longValue()));
+        }
+        return buckets;
+    }
+
+    /**
+     * The row lock taken by {@code old} makes its columns the exact pre-image of the update, since a
+     * concurrent writer waits for this transaction instead of changing the row in between.
+     */
+    @Override
+    public Optional<PatchedProduct> patch(Long id, ProductPatchRequest patch, Long expectedVersion, String username,
+                                          LocalDateTime now) {
+
+        StringBuilder assignments = new StringBuilder("updated_at = :now, updated_by = :username, version = p.version + 1");
+        if (patch.getName() != null) {
+            assignments.append(", name = :name");
+        }
+        if (patch.includesDescription()) {
+            assignments.append(patch.getDescription() == null
+                    ? ", description = NULL"
+                    : ", description = :description");
+        }
+        if (patch.getPrice() != null) {
+            assignments.append(", price = :price");
+        }
+        if (patch.getCategoryId() != null) {
+            assignments.append(", category_id = :categoryId");
+        }
+        StringBuilder conditions = new StringBuilder();
+        if (expectedVersion != null) {
+            conditions.append(" AND p.version = :expectedVersion");
+        }
+        if (patch.getCategoryId() != null) {
+            conditions.append(" AND EXISTS (SELECT 1 FROM categories WHERE id = :categoryId)");
+        }
+
+        Query query = entityManager.createNativeQuery("""
+                WITH old AS (
+                    SELECT p.*, c.name AS category_name
+                    FROM products p
+                    JOIN categories c ON c.id = p.category_id
+                    WHERE p.id = :id
+                    FOR UPDATE OF p
+                ), patched AS (
+                    UPDATE products p
+                    SET %s
+                    FROM old
+                    WHERE p.id = old.id%s
+                    RETURNING p.*
+                )
+                SELECT n.id, n.name, n.description, n.price, nc.name AS category_name, n.category_id, n.active,
+                       n.created_at, n.created_by, n.updated_at, n.updated_by, n.version,
+                       o.id AS old_id, o.name AS old_name, o.description AS old_description, o.price AS old_price,
+                       o.category_name AS old_category_name, o.category_id AS old_category_id,
+                       o.active AS old_active, o.created_at AS old_created_at, o.created_by AS old_created_by,
+                       o.updated_at AS old_updated_at, o.updated_by AS old_updated_by, o.version AS old_version
+                FROM patched n
+                JOIN categories nc ON nc.id = n.category_id
+                JOIN old o ON o.id = n.id
+                """.formatted(assignments, conditions), Product.PATCH_MAPPING);
+
+        query.setParameter("id", id)
+                .setParameter("now", now)
+                .setParameter("username", username);
+        if (expectedVersion != null) {
+            query.setParameter("expectedVersion", expectedVersion);
+        }
+        if (patch.getName() != null) {
+            query.setParameter("name", patch.getName());
+        }
+        if (patch.includesDescription() && patch.getDescription() != null) {
+            query.setParameter("description", patch.getDescription());
+        }
+        if (patch.getPrice() != null) {
+            query.setParameter("price", patch.getPrice());
+        }
+        if (patch.getCategoryId() != null) {
+            query.setParameter("categoryId", patch.getCategoryId());
+        }
+
+        List<?> rows = query.getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = (Object[]) rows.get(0);
+        return Optional.of(new PatchedProduct((ProductResponse) row[1], (ProductResponse) row[0]));
+    }
+
+    /**
+     * Active products restricted by {@code filter}; facet counts leave out the dimension they count.
+     */
+    private List<Predicate> matching(CriteriaBuilder cb, Root<Product> product, ProductFilter filter,
+                                     boolean byCategory, boolean byPrice) {
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.isTrue(product.get("active")));
+
+        if (byCategory && filter.getCategoryIds() != null && !filter.getCategoryIds().isEmpty()) {
+            predicates.add(product.get("category").get("id").in(filter.getCategoryIds()));
+        }
+        if (byPrice && filter.getMinPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(product.get("price"), filter.getMinPrice()));
+        }
+        if (byPrice && filter.getMaxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(product.get("price"), filter.getMaxPrice()));
+        }
+        if (filter.getName() != null && !filter.getName().isBlank()) {
+            String name = escapeLike(filter.getName().trim().toLowerCase(Locale.ROOT));
+            String pattern = filter.getNameMatch() == ProductFilter.NameMatch.STARTS_WITH
+                    ? name + "%"
+                    : "%" + name + "%";
+            predicates.add(cb.like(cb.lower(product.get("name")), pattern, '\\'));
+        }
+        return predicates;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * {@code key >= v AND (key > v OR id > lastId)} for ascending order, mirrored for descending.
+     * The redundant range bound lets Postgres turn the seek into an index range scan. Nulls of a
+     * nullable key come last ascending and first descending, and are matched with explicit null tests.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate seekPast(CriteriaBuilder cb, Root<Product> product, ProductSortField sortField,
+                               Sort.Direction direction, ProductCursor after) {
+
+        Path<Long> id = product.get("id");
+        Predicate idPast = direction.isAscending()
+                ? cb.greaterThan(id, after.getId())
+                : cb.lessThan(id, after.getId());
+
+        if (sortField == ProductSortField.ID) {
+            return idPast;
+        }
+
+        Path<Comparable> key = product.get(sortField.getProperty());
+        Comparable value = after.getValue();
+
+        if (value == null) {
+            Predicate nullPast = cb.and(cb.isNull(key), idPast);
+            return direction.isAscending() ? nullPast : cb.or(nullPast, cb.isNotNull(key));
+        }
+        if (direction.isAscending()) {
+            Predicate past = cb.and(cb.greaterThanOrEqualTo(key, value), cb.or(cb.greaterThan(key, value), idPast));
+            return sortField.isNullable() ? cb.or(past, cb.isNull(key)) : past;
+        }
+        return cb.and(cb.lessThanOrEqualTo(key, value), cb.or(cb.lessThan(key, value), idPast));
+    }
+
+    private Order order(CriteriaBuilder cb, Expression<?> expression, Sort.Direction direction, boolean nullable) {
+        if (!nullable) {
+            return direction.isAscending() ? cb.asc(expression) : cb.desc(expression);
+        }
+        return direction.isAscending() ? cb.asc(expression, Nulls.LAST) : cb.desc(expression, Nulls.FIRST);
+    }
+}
@@ -0,0 +1,388 @@
+package com.assessment.product_catalog.search;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.event.CatalogInvalidatedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import com.assessment.product_catalog.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-process inverted index over the name and description of active products, ranked with BM25.
+ * Built from the database once the application is ready and then kept current from
+ * {@link ProductChangedEvent}s, so searches never reach Postgres.
+ */
+@Component
+public class ProductSearchIndex implements MeterBinder {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    /** A name token counts this many times towards term frequency and document length. */
+    private static final int NAME_WEIGHT = 2;
+
+    /** Terms reached only by prefix expansion score at this fraction of an exact match. */
+    private static final float PREFIX_WEIGHT = 0.5f;
+
+    /** Dead ordinals tolerated before the segment is rebuilt from its live documents. */
+    private static final int COMPACT_THRESHOLD = 10_000;
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxPrefixExpansions;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // One rebuild at a time; a lock rather than synchronized, so a virtual thread loading does not pin a carrier
+    private final ReentrantLock rebuilding = new ReentrantLock();
+    private final Queue<Scratch> idleScratch = new ConcurrentLinkedQueue<>();
+
+    // Guarded by lock; pending collects changes committed while a rebuild reads the database
+    private Segment segment = new Segment();
+    private List<ProductResponse> pending;
+
+    public ProductSearchIndex(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                              @Value("${catalog.search.max-prefix-expansions}") int maxPrefixExpansions) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxPrefixExpansions = maxPrefixExpansions;
+    }
+
+    /**
+     * Replaces the index with a fresh load of every active product. Writes committed while the
+     * load runs are replayed on top of it, so none are lost to the swap.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuilding.lock();
+        try {
+            replaceSegment();
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    private void replaceSegment() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment fresh = new Segment();
+        boolean loaded = false;
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ProductResponse> products = productRepository.streamActive()) {
+                    products.forEach(fresh::put);
+                }
+            });
+            loaded = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    pending.forEach(fresh::apply);
+                    segment = fresh.compactIfSparse();
+                }
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        apply(List.of(event.getProduct()));
+    }
+
+    @EventListener
+    public void onCatalogInvalidated(CatalogInvalidatedEvent event) {
+        if (event.isEverything()) {
+            rebuild();
+        } else {
+            apply(event.getProducts());
+        }
+    }
+
+    private void apply(List<ProductResponse> products) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.addAll(products);
+            }
+            products.forEach(segment::apply);
+            segment = segment.compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} active products best matching {@code query}, most relevant first.
+     * Every query token matches itself and, at a lower weight, the indexed terms it is a prefix of.
+     */
+    public List<ProductResponse> search(String query, int limit) {
+        Set<String> tokens = new LinkedHashSet<>(tokenize(query));
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Segment current = segment;
+            Scratch accumulator = Optional.ofNullable(idleScratch.poll()).orElseGet(Scratch::new).reset(current.size);
+            float avgLength = current.live == 0 ? 1f : (float) current.totalLength / current.live;
+
+            for (String token : tokens) {
+                Postings exact = current.terms.get(token);
+                if (exact != null) {
+                    current.score(exact, 1f, avgLength, accumulator);
+                }
+
+                int expanded = 0;
+                for (Postings postings : current.terms.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                    if (expanded++ == maxPrefixExpansions) {
+                        break;
+                    }
+                    current.score(postings, PREFIX_WEIGHT, avgLength, accumulator);
+                }
+            }
+
+            List<ProductResponse> results = accumulator.top(current, limit);
+            idleScratch.offer(accumulator);
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("catalog.search.documents", this, ProductSearchIndex::size)
+                .description("Active products held by the search index")
+                .register(registry);
+    }
+
+    /**
+     * Lowercased, accent-folded runs of letters and digits.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        String folded = TextFolding.fold(text);
+
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Documents are addressed by dense ordinals. Updating a product retires its ordinal and appends a
+     * new one, so postings stay append-only; retired ordinals are skipped and reclaimed by compaction.
+     */
+    private static final class Segment {
+
+        final TreeMap<String, Postings> terms = new TreeMap<>();
+        final Map<Long, Integer> ordinals = new HashMap<>();
+        ProductResponse[] docs = new ProductResponse[1024];
+        int[] lengths = new int[1024];
+        int size;
+        int live;
+        long totalLength;
+
+        void apply(ProductResponse product) {
+            // Edits to an inactive product arrive as updates but must stay out of the index
+            if (!Boolean.TRUE.equals(product.getActive())) {
+                remove(product.getId());
+            } else {
+                put(product);
+            }
+        }
+
+        void put(ProductResponse product) {
+            remove(product.getId());
+
+            Map<String, Integer> frequencies = termFrequencies(product);
+            int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            int ordinal = size++;
+            docs[ordinal] = product;
+            lengths[ordinal] = length;
+            ordinals.put(product.getId(), ordinal);
+            live++;
+            totalLength += length;
+
+            frequencies.forEach((term, frequency) ->
+                    terms.computeIfAbsent(term, key -> new Postings()).add(ordinal, frequency));
+        }
+
+        void remove(Long productId) {
+            Integer ordinal = ordinals.remove(productId);
+            if (ordinal == null) {
+                return;
+            }
+
+            for (String term : termFrequencies(docs[ordinal]).keySet()) {
+                Postings postings = terms.get(term);
+                if (--postings.documentFrequency == 0) {
+                    terms.remove(term);
+                }
+            }
+            docs[ordinal] = null;
+            live--;
+            totalLength -= lengths[ordinal];
+        }
+
+        Segment compactIfSparse() {
+            int dead = size - live;
+            if (dead <= COMPACT_THRESHOLD || dead <= live) {
+                return this;
+            }
+            Segment compacted = new Segment();
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                if (docs[ordinal] != null) {
+                    compacted.put(docs[ordinal]);
+                }
+            }
+            return compacted;
+        }
+
+        void score(Postings postings, float weight, float avgLength, Scratch accumulator) {
+            float idf = (float) Math.log(1 + (live - postings.documentFrequency + 0.5) / (postings.documentFrequency + 0.5));
+            for (int i = 0; i < postings.size; i++) {
+                int ordinal = postings.ordinals[i];
+                if (docs[ordinal] == null) {
+                    continue;
+                }
+                int tf = postings.frequencies[i];
+                float norm = K1 * (1 - B + B * lengths[ordinal] / avgLength);
+                accumulator.add(ordinal, weight * idf * tf * (K1 + 1) / (tf + norm));
+            }
+        }
+
+        private static Map<String, Integer> termFrequencies(ProductResponse product) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : tokenize(product.getName())) {
+                frequencies.merge(token, NAME_WEIGHT, Integer::sum);
+            }
+            for (String token : tokenize(product.getDescription())) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+            return frequencies;
+        }
+    }
+
+    private static final class Postings {
+
+        int[] ordinals = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+        int documentFrequency;
+
+        void add(int ordinal, int frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+            documentFrequency++;
+        }
+    }
+
+    /**
+     * Score accumulator indexed by ordinal, pooled across queries; only touched slots are cleared on reuse.
+     */
+    private static final class Scratch {
+
+        float[] scores = new float[0];
+        int[] touched = new int[0];
+        int touchedCount;
+
+        Scratch reset(int capacity) {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0f;
+            }
+            touchedCount = 0;
+            if (scores.length < capacity) {
+                scores = new float[capacity];
+            }
+            return this;
+        }
+
+        void add(int ordinal, float score) {
+            if (scores[ordinal] == 0f) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, Math.max(64, touchedCount * 2));
+                }
+                touched[touchedCount++] = ordinal;
+            }
+            scores[ordinal] += score;
+        }
+
+        List<ProductResponse> top(Segment segment, int limit) {
+            Comparator<Integer> byRelevance = Comparator.<Integer>comparingDouble(ordinal -> scores[ordinal])
+                    .thenComparing(ordinal -> segment.docs[ordinal].getId(), Comparator.reverseOrder());
+
+            PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, byRelevance);
+            for (int i = 0; i < touchedCount; i++) {
+                int ordinal = touched[i];
+                if (best.size() < limit) {
+                    best.add(ordinal);
+                } else if (byRelevance.compare(ordinal, best.peek()) > 0) {
+                    best.poll();
+                    best.add(ordinal);
+                }
+            }
+
+            ProductResponse[] results = new ProductResponse[best.size()];
+            for (int i = results.length - 1; i >= 0; i--) {
+                results[i] = segment.docs[best.poll()];
+            }
+            return Arrays.asList(results);
+        }
+    }
+}
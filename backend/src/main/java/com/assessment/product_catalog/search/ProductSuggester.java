@@ -0,0 +1,617 @@
+package com.assessment.product_catalog.search;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.event.CatalogInvalidatedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import com.assessment.product_catalog.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Typeahead over active product names, most recently updated first.
+ * <p>
+ * Names live in an immutable, front-coded sorted dictionary (a few bytes per name once shared
+ * prefixes are stripped) with per-block score maxima, so a prefix lookup is a binary search plus a
+ * top-k scan that skips blocks which cannot beat the current results. Changes are patched in
+ * through a small sorted overlay and a removal bitmap, and merged into a new dictionary in the
+ * background once the overlay grows past {@code catalog.suggest.overlay-limit}.
+ */
+@Component
+public class ProductSuggester implements MeterBinder {
+
+    /** Names per front-coded block; also the granularity of the score maxima used for pruning. */
+    private static final int BLOCK_SIZE = 16;
+
+    /** Blocks per superblock, the coarser score maxima that let broad prefixes skip whole runs of blocks. */
+    private static final int SUPERBLOCK_SIZE = 64;
+
+    /** Separates the folded name from the original inside a sort key. */
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int overlayLimit;
+    private final ExecutorService merger = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-suggest-merge");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serialises reloads and overlay merges; held across the load, which must not pin a virtual thread
+    private final ReentrantLock rebuilding = new ReentrantLock();
+
+    // Guarded by lock. The overlay maps sort keys to scores; journal records changes applied while a
+    // replacement dictionary is being built so they can be replayed on top of it.
+    private Dictionary dictionary = new Dictionary.Builder().build();
+    private BitSet removed = new BitSet();
+    private TreeMap<String, Integer> overlay = new TreeMap<>();
+    private List<Runnable> journal;
+    private boolean mergeScheduled;
+    private boolean reloadScheduled;
+
+    public ProductSuggester(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                            @Value("${catalog.suggest.overlay-limit}") int overlayLimit) {
+        this.productRepository = productRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.overlayLimit = overlayLimit;
+    }
+
+    /**
+     * Replaces the dictionary with every active product name from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuild(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductResponse product = event.getProduct();
+        ProductResponse before = event.getBefore();
+
+        lock.writeLock().lock();
+        try {
+            if (before != null && !before.getName().equals(product.getName())) {
+                record(() -> remove(before.getName()));
+            }
+            if (!Boolean.TRUE.equals(product.getActive())) {
+                record(() -> remove(product.getName()));
+            } else {
+                int score = score(product);
+                record(() -> put(product.getName(), score));
+            }
+
+            if (overlay.size() > overlayLimit && !mergeScheduled) {
+                mergeScheduled = true;
+                merger.execute(() -> rebuild(false));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Patches in the current names of products another node changed. A renamed product's old name
+     * is not known here, so a reload from the database follows to drop it.
+     */
+    @EventListener
+    public void onCatalogInvalidated(CatalogInvalidatedEvent event) {
+        if (event.isEverything()) {
+            rebuild();
+            return;
+        }
+        if (event.getProducts().isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (ProductResponse product : event.getProducts()) {
+                if (!Boolean.TRUE.equals(product.getActive())) {
+                    record(() -> remove(product.getName()));
+                } else {
+                    int score = score(product);
+                    record(() -> put(product.getName(), score));
+                }
+            }
+
+            if (!reloadScheduled) {
+                reloadScheduled = true;
+                merger.execute(this::reload);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} active product names starting with {@code prefix}, ignoring case and
+     * accents, most recently updated first.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        String from = TextFolding.fold(prefix);
+        String to = from + Character.MAX_VALUE;
+
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, Candidate.WORST_FIRST);
+
+            for (Map.Entry<String, Integer> entry : overlay.subMap(from, to).entrySet()) {
+                offer(best, new Candidate(entry.getKey(), entry.getValue()), limit);
+            }
+            for (int index : dictionary.top(dictionary.lowerBound(from), dictionary.lowerBound(to), removed, limit)) {
+                String name = dictionary.name(index);
+                offer(best, new Candidate(sortKey(name), dictionary.scores[index]), limit);
+            }
+
+            String[] names = new String[best.size()];
+            for (int i = names.length - 1; i >= 0; i--) {
+                names[i] = nameOf(best.poll().key);
+            }
+            return Arrays.asList(names);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return dictionary.size - removed.cardinality() + overlay.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("catalog.suggest.names", this, ProductSuggester::size)
+                .description("Active product names available for typeahead")
+                .register(registry);
+        Gauge.builder("catalog.suggest.dictionary.bytes", this, suggester -> suggester.dictionary.data.length)
+                .description("Encoded size of the front-coded name dictionary")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Builds a replacement dictionary, from the database or by merging the current overlay, then
+     * swaps it in and replays the changes that arrived meanwhile.
+     */
+    private void rebuild(boolean fromDatabase) {
+        rebuilding.lock();
+        try {
+            replaceDictionary(fromDatabase);
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    private void replaceDictionary(boolean fromDatabase) {
+        Dictionary base;
+        BitSet dead;
+        TreeMap<String, Integer> additions;
+
+        lock.writeLock().lock();
+        try {
+            base = dictionary;
+            dead = (BitSet) removed.clone();
+            additions = new TreeMap<>(overlay);
+            journal = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Dictionary built = null;
+        try {
+            built = fromDatabase ? load() : base.merge(dead, additions);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                List<Runnable> changes = journal;
+                journal = null;
+                mergeScheduled = false;
+                if (built != null) {
+                    dictionary = built;
+                    removed = new BitSet();
+                    overlay = new TreeMap<>();
+                    changes.forEach(Runnable::run);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Clears the flag before reading, so names changed elsewhere during the load schedule another.
+     */
+    private void reload() {
+        lock.writeLock().lock();
+        try {
+            reloadScheduled = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        rebuild(true);
+    }
+
+    private Dictionary load() {
+        List<Candidate> names = new ArrayList<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<ProductResponse> products = productRepository.streamActive()) {
+                products.forEach(product -> names.add(new Candidate(sortKey(product.getName()), score(product))));
+            }
+        });
+        names.sort(Comparator.comparing(candidate -> candidate.key));
+
+        Dictionary.Builder builder = new Dictionary.Builder();
+        names.forEach(candidate -> builder.add(nameOf(candidate.key), candidate.score));
+        return builder.build();
+    }
+
+    private void record(Runnable change) {
+        change.run();
+        if (journal != null) {
+            journal.add(change);
+        }
+    }
+
+    private void put(String name, int score) {
+        remove(name);
+        overlay.put(sortKey(name), score);
+    }
+
+    private void remove(String name) {
+        if (overlay.remove(sortKey(name)) == null) {
+            int index = dictionary.indexOf(name);
+            if (index >= 0) {
+                removed.set(index);
+            }
+        }
+    }
+
+    private static void offer(PriorityQueue<Candidate> best, Candidate candidate, int limit) {
+        if (best.size() < limit) {
+            best.add(candidate);
+        } else if (Candidate.WORST_FIRST.compare(candidate, best.peek()) > 0) {
+            best.poll();
+            best.add(candidate);
+        }
+    }
+
+    /**
+     * Minutes since the epoch of the last update; more recent names rank higher.
+     */
+    private static int score(ProductResponse product) {
+        return product.getUpdatedAt() == null
+                ? 0
+                : (int) (product.getUpdatedAt().toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    /**
+     * Orders names by their folded form first, so every name matching a folded prefix is contiguous.
+     */
+    static String sortKey(String name) {
+        return TextFolding.fold(name) + KEY_SEPARATOR + name;
+    }
+
+    private static String nameOf(String sortKey) {
+        return sortKey.substring(sortKey.indexOf(KEY_SEPARATOR) + 1);
+    }
+
+    private static final class Candidate {
+
+        /** Lower score first; on equal scores the later name in sort order is the worse one. */
+        static final Comparator<Candidate> WORST_FIRST = Comparator.<Candidate>comparingInt(candidate -> candidate.score)
+                .thenComparing(candidate -> candidate.key, Comparator.reverseOrder());
+
+        final String key;
+        final int score;
+
+        Candidate(String key, int score) {
+            this.key = key;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Immutable sorted names. Each block of {@link #BLOCK_SIZE} names is front-coded: every entry
+     * stores the number of UTF-8 bytes it shares with the previous one, then the remaining bytes.
+     */
+    private static final class Dictionary {
+
+        final byte[] data;
+        final int[] blockOffsets;
+        final int[] blockMax;
+        final int[] superblockMax;
+        final int[] scores;
+        final int size;
+
+        private Dictionary(byte[] data, int[] blockOffsets, int[] blockMax, int[] scores, int size) {
+            this.data = data;
+            this.blockOffsets = blockOffsets;
+            this.blockMax = blockMax;
+            this.scores = scores;
+            this.size = size;
+
+            this.superblockMax = new int[(blockMax.length + SUPERBLOCK_SIZE - 1) / SUPERBLOCK_SIZE];
+            for (int block = 0; block < blockMax.length; block++) {
+                int superblock = block / SUPERBLOCK_SIZE;
+                superblockMax[superblock] = Math.max(superblockMax[superblock], blockMax[block]);
+            }
+        }
+
+        String name(int index) {
+            return block(index / BLOCK_SIZE)[index % BLOCK_SIZE];
+        }
+
+        /**
+         * Position of {@code name}, or -1 when it is not in the dictionary.
+         */
+        int indexOf(String name) {
+            int index = lowerBound(sortKey(name));
+            return index < size && name(index).equals(name) ? index : -1;
+        }
+
+        /**
+         * First position whose sort key is not less than {@code key}.
+         */
+        int lowerBound(String key) {
+            int blocks = blockOffsets.length;
+            int low = 0;
+            int high = blocks;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sortKey(firstName(mid)).compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            if (low == 0) {
+                return 0;
+            }
+
+            // Every block from low onwards starts at or after key, so the bound is inside block low - 1
+            int block = low - 1;
+            String[] names = block(block);
+            int start = block * BLOCK_SIZE;
+            for (int i = 1; i < names.length; i++) {
+                if (sortKey(names[i]).compareTo(key) >= 0) {
+                    return start + i;
+                }
+            }
+            return Math.min(size, low * BLOCK_SIZE);
+        }
+
+        /**
+         * Positions in {@code [from, to)} with the highest scores, skipping removed entries. Whole
+         * superblocks and blocks are visited best maximum first, superblocks being split into their
+         * blocks when reached, and the scan stops once nothing left can improve the result.
+         */
+        List<Integer> top(int from, int to, BitSet removed, int limit) {
+            if (from >= to) {
+                return List.of();
+            }
+            Comparator<Integer> worstFirst = Comparator.<Integer>comparingInt(index -> scores[index])
+                    .thenComparing(Comparator.reverseOrder());
+            PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, worstFirst);
+
+            int firstFull = (from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            int lastFull = to / BLOCK_SIZE;
+            if (firstFull >= lastFull) {
+                scan(from, to, removed, limit, best, worstFirst);
+            } else {
+                scan(from, firstFull * BLOCK_SIZE, removed, limit, best, worstFirst);
+                scan(lastFull * BLOCK_SIZE, to, removed, limit, best, worstFirst);
+
+                // Nodes pack the score maximum above a superblock flag and the block or superblock number
+                PriorityQueue<Long> nodes = new PriorityQueue<>(Comparator.reverseOrder());
+                int block = firstFull;
+                while (block < lastFull) {
+                    if (block % SUPERBLOCK_SIZE == 0 && block + SUPERBLOCK_SIZE <= lastFull) {
+                        nodes.add(node(superblockMax[block / SUPERBLOCK_SIZE], true, block / SUPERBLOCK_SIZE));
+                        block += SUPERBLOCK_SIZE;
+                    } else {
+                        nodes.add(node(blockMax[block], false, block));
+                        block++;
+                    }
+                }
+
+                while (!nodes.isEmpty()) {
+                    long node = nodes.poll();
+                    if (best.size() == limit && (int) (node >>> 32) < scores[best.peek()]) {
+                        break;
+                    }
+                    int number = (int) (node & 0x7FFF_FFFFL);
+                    if ((node & 0x8000_0000L) != 0) {
+                        for (int child = number * SUPERBLOCK_SIZE; child < (number + 1) * SUPERBLOCK_SIZE; child++) {
+                            nodes.add(node(blockMax[child], false, child));
+                        }
+                    } else {
+                        scan(number * BLOCK_SIZE, (number + 1) * BLOCK_SIZE, removed, limit, best, worstFirst);
+                    }
+                }
+            }
+            return new ArrayList<>(best);
+        }
+
+        private static long node(int max, boolean superblock, int number) {
+            return ((long) max << 32) | (superblock ? 0x8000_0000L : 0) | number;
+        }
+
+        private void scan(int from, int to, BitSet removed, int limit, PriorityQueue<Integer> best,
+                          Comparator<Integer> worstFirst) {
+            for (int index = from; index < to; index++) {
+                if (removed.get(index)) {
+                    continue;
+                }
+                if (best.size() < limit) {
+                    best.add(index);
+                } else if (worstFirst.compare(index, best.peek()) > 0) {
+                    best.poll();
+                    best.add(index);
+                }
+            }
+        }
+
+        /**
+         * Merges the live entries with {@code additions} (sort key to score) into a new dictionary.
+         */
+        Dictionary merge(BitSet dead, SortedMap<String, Integer> additions) {
+            Builder builder = new Builder();
+            Iterator<Map.Entry<String, Integer>> added = additions.entrySet().iterator();
+            Map.Entry<String, Integer> next = added.hasNext() ? added.next() : null;
+
+            for (int block = 0; block < blockOffsets.length; block++) {
+                String[] names = block(block);
+                for (int i = 0; i < names.length; i++) {
+                    int index = block * BLOCK_SIZE + i;
+                    if (dead.get(index)) {
+                        continue;
+                    }
+                    String key = sortKey(names[i]);
+                    while (next != null && next.getKey().compareTo(key) < 0) {
+                        builder.add(nameOf(next.getKey()), next.getValue());
+                        next = added.hasNext() ? added.next() : null;
+                    }
+                    builder.add(names[i], scores[index]);
+                }
+            }
+            while (next != null) {
+                builder.add(nameOf(next.getKey()), next.getValue());
+                next = added.hasNext() ? added.next() : null;
+            }
+            return builder.build();
+        }
+
+        private String firstName(int block) {
+            int[] position = {blockOffsets[block]};
+            readVarInt(position);
+            int length = readVarInt(position);
+            return new String(data, position[0], length, StandardCharsets.UTF_8);
+        }
+
+        private String[] block(int block) {
+            int count = Math.min(BLOCK_SIZE, size - block * BLOCK_SIZE);
+            String[] names = new String[count];
+            byte[] current = new byte[0];
+            int[] position = {blockOffsets[block]};
+
+            for (int i = 0; i < count; i++) {
+                int shared = readVarInt(position);
+                int suffix = readVarInt(position);
+                byte[] entry = Arrays.copyOf(current, shared + suffix);
+                System.arraycopy(data, position[0], entry, shared, suffix);
+                position[0] += suffix;
+                names[i] = new String(entry, StandardCharsets.UTF_8);
+                current = entry;
+            }
+            return names;
+        }
+
+        private int readVarInt(int[] position) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position[0]++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        /**
+         * Accepts names in sort key order.
+         */
+        static final class Builder {
+
+            private byte[] data = new byte[1024];
+            private int length;
+            private int[] blockOffsets = new int[16];
+            private int[] blockMax = new int[16];
+            private int[] scores = new int[256];
+            private int size;
+            private byte[] previous = new byte[0];
+
+            void add(String name, int score) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                int block = size / BLOCK_SIZE;
+                int shared = 0;
+
+                if (size % BLOCK_SIZE == 0) {
+                    if (block == blockOffsets.length) {
+                        blockOffsets = Arrays.copyOf(blockOffsets, block * 2);
+                        blockMax = Arrays.copyOf(blockMax, block * 2);
+                    }
+                    blockOffsets[block] = length;
+                    blockMax[block] = score;
+                } else {
+                    int max = Math.min(previous.length, bytes.length);
+                    while (shared < max && previous[shared] == bytes[shared]) {
+                        shared++;
+                    }
+                    blockMax[block] = Math.max(blockMax[block], score);
+                }
+
+                writeVarInt(shared);
+                writeVarInt(bytes.length - shared);
+                ensureCapacity(bytes.length - shared);
+                System.arraycopy(bytes, shared, data, length, bytes.length - shared);
+                length += bytes.length - shared;
+
+                if (size == scores.length) {
+                    scores = Arrays.copyOf(scores, size * 2);
+                }
+                scores[size++] = score;
+                previous = bytes;
+            }
+
+            Dictionary build() {
+                int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+                return new Dictionary(Arrays.copyOf(data, length), Arrays.copyOf(blockOffsets, blocks),
+                        Arrays.copyOf(blockMax, blocks), Arrays.copyOf(scores, size), size);
+            }
+
+            private void writeVarInt(int value) {
+                ensureCapacity(5);
+                while ((value & ~0x7F) != 0) {
+                    data[length++] = (byte) ((value & 0x7F) | 0x80);
+                    value >>>= 7;
+                }
+                data[length++] = (byte) value;
+            }
+
+            private void ensureCapacity(int extra) {
+                if (length + extra > data.length) {
+                    data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+                }
+            }
+        }
+    }
+}
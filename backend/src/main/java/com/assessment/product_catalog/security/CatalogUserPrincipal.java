@@ -0,0 +1,34 @@
+package com.assessment.product_catalog.security;
+
+import com.assessment.product_catalog.entity.CatalogUser;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Spring Security user that keeps the fields needed to issue a token, so the login flow
+ * does not have to look the user up again after authentication.
+ */
+@Getter
+public class CatalogUserPrincipal extends User {
+
+    private final String role;
+    /** Granted at login and carried in the token, so requests get the same authority back. */
+    private final String grantedRole;
+    private final Long tokenVersion;
+
+    public CatalogUserPrincipal(CatalogUser user, String grantedRole) {
+        super(user.getUsername(), user.getPassword(), authorities(grantedRole));
+        this.role = user.getRole();
+        this.grantedRole = grantedRole;
+        this.tokenVersion = user.getTokenVersion();
+    }
+
+    static List<GrantedAuthority> authorities(String role) {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+}
@@ -1,6 +1,7 @@
 package com.assessment.product_catalog.security;
 
-import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,21 +9,34 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JWTFilter extends OncePerRequestFilter {
 
     @Autowired
-    private JWTUtil jwtUtil;
+    private VerifiedTokenCache verifiedTokenCache;
 
     @Autowired
-    private CatalogUserDetailsService catalogUserDetailsService;
+    private TokenVersionCache tokenVersionCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer authentication;
+
+    @Override
+    protected void initFilterBean() {
+        authentication = Timer.builder("security.jwt.filter")
+                .description("Time spent authenticating a bearer token, excluding the rest of the request")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -39,24 +53,34 @@ public class JWTFilter extends OncePerRequestFilter {
         }
 
         final String jwt = authHeader.substring(7).trim();
+        long start = System.nanoTime();
 
-        // Validate token once and reuse the decoded result
-        DecodedJWT decodedJWT = jwtUtil.validateToken(jwt);
+        // Signature is only checked the first time this token is seen
+        VerifiedToken verifiedToken = verifiedTokenCache.verify(jwt);
 
-        if (decodedJWT != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            String username = jwtUtil.extractUsername(decodedJWT);
-            UserDetails userDetails = catalogUserDetailsService.loadUserByUsername(username);
+        if (verifiedToken != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && isCurrent(verifiedToken)) {
 
+            // Everything needed is in the verified claims, no user row is loaded
             UsernamePasswordAuthenticationToken authToken =
                     new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
+                            verifiedToken.getUsername(), null, verifiedToken.getAuthorities());
 
             authToken.setDetails(
                     new WebAuthenticationDetailsSource().buildDetails(request));
 
             SecurityContextHolder.getContext().setAuthentication(authToken);
         }
+        authentication.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Rejects tokens issued before the user's last revocation, or for a deactivated user.
+     */
+    private boolean isCurrent(VerifiedToken verifiedToken) {
+        return verifiedToken.getTokenVersion() != null
+                && tokenVersionCache.isCurrent(verifiedToken.getUsername(), verifiedToken.getTokenVersion());
+    }
 }
@@ -8,18 +8,28 @@ import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
-import java.util.Date;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 
 @Component
 public class JWTUtil {
 
     private static final String ISSUER = "product-catalog-assessment";
+    private static final String ROLE_CLAIM = "role";
+    private static final String VERSION_CLAIM = "ver";
 
     @Value("${jwt.secret}")
     private String secret;
 
+    @Value("${jwt.expiration}")
+    private Duration expiration;
+
     private Algorithm algorithm;
     private JWTVerifier verifier;
 
@@ -32,11 +42,18 @@ public class JWTUtil {
                 .build();
     }
 
-    public String generateToken(String username) {
+    /**
+     * Issues a token carrying everything the filter needs to authenticate a request
+     * without loading the user: the role granted at login and the user's current token version.
+     */
+    public String generateToken(String username, String role, long tokenVersion) {
         try {
             return JWT.create()
                     .withSubject(username)
-                    .withIssuedAt(new Date())
+                    .withClaim(ROLE_CLAIM, role.toUpperCase(Locale.ROOT))
+                    .withClaim(VERSION_CLAIM, tokenVersion)
+                    .withIssuedAt(Instant.now())
+                    .withExpiresAt(Instant.now().plus(expiration))
                     .withIssuer(ISSUER)
                     .sign(algorithm);
         } catch (JWTCreationException exception) {
@@ -62,4 +79,19 @@ public class JWTUtil {
     public String extractUsername(DecodedJWT decodedJWT) {
         return decodedJWT.getSubject();
     }
+
+    /**
+     * Returns null for tokens issued before the version claim existed.
+     */
+    public Long extractTokenVersion(DecodedJWT decodedJWT) {
+        return decodedJWT.getClaim(VERSION_CLAIM).asLong();
+    }
+
+    public List<GrantedAuthority> extractAuthorities(DecodedJWT decodedJWT) {
+        String role = decodedJWT.getClaim(ROLE_CLAIM).asString();
+        if (role == null) {
+            return Collections.emptyList();
+        }
+        return CatalogUserPrincipal.authorities(role);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.assessment.product_catalog.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Small dedicated pool for password verification. BCrypt is deliberately CPU-heavy, so logins
+ * run here instead of on request threads; once the pool and its queue are full, new logins are
+ * rejected immediately rather than piling up and starving catalog reads.
+ */
+@Component
+public class LoginExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+    private final Timer queueWait;
+    private final Timer verification;
+
+    public LoginExecutor(MeterRegistry meterRegistry,
+                         @Value("${auth.login.threads}") int threads,
+                         @Value("${auth.login.queue-capacity}") int queueCapacity) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("login-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.login.queue.depth", executor, e -> e.getQueue().size())
+                .description("Logins waiting for a password-verification thread")
+                .baseUnit("tasks")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Logins currently verifying a password")
+                .baseUnit("tasks")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("auth.login.queue.wait")
+                .description("Time a login spent queued before verification started")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.verification = Timer.builder("auth.login.verification")
+                .description("Time spent verifying credentials, dominated by the BCrypt hash")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a credential check.
+     *
+     * @throws RejectedExecutionException when the pool and its queue are full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> {
+            queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+            return verification.record(task);
+        }, executor);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
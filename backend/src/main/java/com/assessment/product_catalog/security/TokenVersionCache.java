@@ -0,0 +1,47 @@
+package com.assessment.product_catalog.security;
+
+import com.assessment.product_catalog.repository.CatalogUserRepository;
+import com.assessment.product_catalog.utils.CacheLoads;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of each user's current token version. Lets the JWT filter reject revoked
+ * tokens and deactivated users with a single-column lookup at most once per TTL per user.
+ */
+@Component
+public class TokenVersionCache implements MeterBinder {
+
+    private static final long INACTIVE = -1L;
+
+    private final CatalogUserRepository catalogUserRepository;
+    private final AsyncCache<String, Long> versions;
+
+    public TokenVersionCache(CatalogUserRepository catalogUserRepository,
+                             @Value("${jwt.version-check-ttl}") Duration ttl) {
+        this.catalogUserRepository = catalogUserRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public boolean isCurrent(String username, long tokenVersion) {
+        long current = CacheLoads.get(versions, username, key ->
+                catalogUserRepository.findActiveTokenVersion(key).orElse(INACTIVE));
+        return current != INACTIVE && current == tokenVersion;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, versions, "token-versions");
+    }
+}
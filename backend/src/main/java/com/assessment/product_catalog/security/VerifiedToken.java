@@ -0,0 +1,20 @@
+package com.assessment.product_catalog.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Claims of a token whose signature has already been checked.
+ */
+@Getter
+@AllArgsConstructor
+public class VerifiedToken {
+    private final String username;
+    private final List<GrantedAuthority> authorities;
+    private final Long tokenVersion;
+    private final Instant expiresAt;
+}
@@ -0,0 +1,99 @@
+package com.assessment.product_catalog.security;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Remembers tokens that already passed signature verification, keyed by their SHA-256 digest,
+ * so a client replaying the same bearer token skips the decode and HMAC on later requests.
+ * An entry never outlives the token's own {@code exp}; tokens without one are not cached.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JWTUtil jwtUtil;
+    private final MessageDigest sha256;
+    private final Cache<ByteBuffer, VerifiedToken> tokens;
+    private final Counter cacheHits;
+    private final Counter verifications;
+    private final Counter rejections;
+
+    public VerifiedTokenCache(JWTUtil jwtUtil, MeterRegistry meterRegistry,
+                              @Value("${jwt.verified-cache.max-size}") long maxSize) throws NoSuchAlgorithmException {
+        this.jwtUtil = jwtUtil;
+        this.sha256 = MessageDigest.getInstance("SHA-256");
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((ByteBuffer key, VerifiedToken token) ->
+                        Duration.between(Instant.now(), token.getExpiresAt())))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "verified-tokens");
+        this.cacheHits = verificationCounter(meterRegistry, "cache");
+        this.verifications = verificationCounter(meterRegistry, "signature");
+        this.rejections = verificationCounter(meterRegistry, "rejected");
+    }
+
+    /**
+     * Returns the token's claims, or null if the token is invalid or expired.
+     */
+    public VerifiedToken verify(String token) {
+        ByteBuffer key = digest(token);
+
+        VerifiedToken cached = tokens.getIfPresent(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
+        }
+
+        DecodedJWT decodedJWT = jwtUtil.validateToken(token);
+        if (decodedJWT == null) {
+            rejections.increment();
+            return null;
+        }
+        verifications.increment();
+
+        VerifiedToken verified = new VerifiedToken(
+                jwtUtil.extractUsername(decodedJWT),
+                jwtUtil.extractAuthorities(decodedJWT),
+                jwtUtil.extractTokenVersion(decodedJWT),
+                decodedJWT.getExpiresAtAsInstant());
+
+        if (verified.getExpiresAt() != null) {
+            tokens.put(key, verified);
+        }
+        return verified;
+    }
+
+    private ByteBuffer digest(String token) {
+        try {
+            // MessageDigest is not thread-safe; cloning the prototype avoids a provider lookup per call
+            MessageDigest digest = (MessageDigest) sha256.clone();
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest is not cloneable", e);
+        }
+    }
+
+    private static Counter verificationCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("security.jwt.verifications")
+                .description("Bearer tokens accepted from the verified-token cache, verified by signature, or rejected")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
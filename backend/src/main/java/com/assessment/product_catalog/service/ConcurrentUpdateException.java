@@ -0,0 +1,15 @@
+package com.assessment.product_catalog.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * An unconditional write lost to concurrent writers on every attempt it was allowed.
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT, reason = "Product is being changed concurrently, please retry")
+public class ConcurrentUpdateException extends RuntimeException {
+
+    public ConcurrentUpdateException(int attempts) {
+        super("Product write conflicted " + attempts + " times");
+    }
+}
@@ -0,0 +1,15 @@
+package com.assessment.product_catalog.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A price adjustment would take the price below one cent or beyond what the price column holds.
+ */
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Adjusted price is out of range")
+public class InvalidPriceException extends RuntimeException {
+
+    public InvalidPriceException(String message) {
+        super(message);
+    }
+}
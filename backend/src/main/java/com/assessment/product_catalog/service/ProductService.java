@@ -1,142 +1,505 @@
 package com.assessment.product_catalog.service;
 
+import com.assessment.product_catalog.cache.ProductCache;
+import com.assessment.product_catalog.cache.ProductCounts;
+import com.assessment.product_catalog.cache.ProductSnapshot;
+import com.assessment.product_catalog.dto.BulkImportResponse;
+import com.assessment.product_catalog.dto.BulkProductResult;
+import com.assessment.product_catalog.dto.ProductFacets;
+import com.assessment.product_catalog.dto.ProductChangePage;
+import com.assessment.product_catalog.dto.ProductFilter;
+import com.assessment.product_catalog.dto.ProductPage;
+import com.assessment.product_catalog.dto.ProductPatchRequest;
 import com.assessment.product_catalog.dto.ProductRequest;
 import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.dto.ProductSortField;
 import com.assessment.product_catalog.entity.Category;
 import com.assessment.product_catalog.entity.Product;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import com.assessment.product_catalog.feed.ProductChangeFeed;
+import com.assessment.product_catalog.event.ProductChangedEvent.ChangeType;
 import com.assessment.product_catalog.mapper.ProductMapper;
 import com.assessment.product_catalog.repository.CategoryRepository;
 import com.assessment.product_catalog.repository.ProductRepository;
+import com.assessment.product_catalog.repository.ProductRepositoryCustom.PatchedProduct;
+import com.assessment.product_catalog.search.ProductSearchIndex;
+import com.assessment.product_catalog.search.ProductSuggester;
+import com.assessment.product_catalog.utils.InvalidPageRequestException;
+import com.assessment.product_catalog.utils.ProductCursor;
 import com.assessment.product_catalog.utils.UserUtil;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
-import java.util.List;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "catalog.service", histogram = true)
 public class ProductService {
 
+    /**
+     * Rows written per transaction by the bulk import; matches hibernate.jdbc.batch_size
+     * so each chunk flushes as one JDBC batch per statement type.
+     */
+    static final int BULK_CHUNK_SIZE = 500;
+
+    /**
+     * Tries an unconditional write gets before a run of lost races is reported as a conflict.
+     */
+    static final int MAX_WRITE_ATTEMPTS = 3;
+
+    private static final BigDecimal MIN_PRICE = new BigDecimal("0.01");
+    /** The largest price {@code numeric(10,2)} holds. */
+    static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final ProductMapper productMapper;
+    private final EntityManager entityManager;
+    private final JsonMapper jsonMapper;
+    private final ProductCache productCache;
+    private final ProductCounts productCounts;
+    private final ProductSnapshot productSnapshot;
+    private final ProductChangeFeed productChangeFeed;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductSuggester productSuggester;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final List<BigDecimal> priceBucketBounds;
 
     public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository,
-                          ProductMapper productMapper) {
+                          ProductMapper productMapper, EntityManager entityManager, JsonMapper jsonMapper,
+                          ProductCache productCache, ProductCounts productCounts, ProductSnapshot productSnapshot,
+                          ProductChangeFeed productChangeFeed, ProductSearchIndex productSearchIndex,
+                          ProductSuggester productSuggester, ApplicationEventPublisher eventPublisher,
+                          TransactionTemplate transactionTemplate, Validator validator,
+                          @Value("${catalog.facets.price-bounds}") List<BigDecimal> priceBucketBounds) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.productMapper = productMapper;
+        this.entityManager = entityManager;
+        this.jsonMapper = jsonMapper;
+        this.productCache = productCache;
+        this.productCounts = productCounts;
+        this.productSnapshot = productSnapshot;
+        this.productChangeFeed = productChangeFeed;
+        this.productSearchIndex = productSearchIndex;
+        this.productSuggester = productSuggester;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.priceBucketBounds = priceBucketBounds;
     }
 
-    public List<ProductResponse> getAllActiveProducts() {
-        return productRepository.findByActiveTrue()
-                .stream()
-                .map(productMapper::toResponse)
-                .collect(Collectors.toList());
-    }
+    /**
+     * Returns one keyset page of active products matching {@code filter}, with facet counts when
+     * {@code withFacets} is set. Pass the previous page's {@code nextCursor} to continue; null starts
+     * from the beginning. Read-only, so the page and its facets come from one snapshot and may be
+     * served by the read replica.
+     */
+    @Transactional(readOnly = true)
+    public ProductPage getActiveProducts(ProductFilter filter, ProductSortField sortField, Sort.Direction direction,
+                                         String cursor, int size, boolean withFacets) {
 
-    public List<ProductResponse> getProductsByCategory(Long categoryId) {
-        return productRepository.findByCategoryIdAndActiveTrue(categoryId)
-                .stream()
-                .map(productMapper::toResponse)
-                .collect(Collectors.toList());
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice().compareTo(filter.getMaxPrice()) > 0) {
+            throw new InvalidPageRequestException("minPrice must not be greater than maxPrice");
+        }
+
+        ProductCursor after = (cursor == null || cursor.isBlank())
+                ? null
+                : ProductCursor.decode(cursor, sortField, direction);
+
+        // Fetch one extra row to learn whether another page exists
+        List<ProductResponse> rows = productRepository.findActivePage(filter, sortField, direction, after, size + 1);
+
+        List<ProductResponse> items = rows.size() > size ? rows.subList(0, size) : rows;
+
+        String nextCursor = rows.size() > size
+                ? ProductCursor.after(items.get(items.size() - 1), sortField, direction).encode()
+                : null;
+
+        ProductFacets facets = withFacets
+                ? new ProductFacets(productRepository.countActiveByCategory(filter),
+                        productRepository.countActiveByPriceBucket(filter, priceBucketBounds))
+                : null;
+
+        return new ProductPage(items, nextCursor, facets);
     }
     
-    public int getActiveProductCount() {
-        return productRepository.countByActiveTrue();
+    /**
+     * Writes every active product to {@code out} as newline-delimited JSON. Rows are read through a
+     * database cursor as unmanaged projections, so memory stays flat regardless of catalog size.
+     */
+    @Transactional(readOnly = true)
+    public void exportActiveProducts(OutputStream out) throws IOException {
+        try (Stream<ProductResponse> products = productRepository.streamActive()) {
+            Iterator<ProductResponse> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                out.write(jsonMapper.writeValueAsBytes(iterator.next()));
+                out.write('\n');
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * The prebuilt full-catalog response, or null while the first one is still being built.
+     */
+    public ProductSnapshot.Snapshot getCatalogSnapshot() {
+        return productSnapshot.current();
+    }
+
+    /**
+     * Committed changes after {@code since}. Without it, an empty page carrying the current sequence,
+     * which a client notes before loading the catalog and then polls or streams from.
+     */
+    public ProductChangePage getChanges(Long since, int limit) {
+        if (since == null) {
+            return new ProductChangePage(List.of(), productChangeFeed.lastSequence(), false);
+        }
+        return productChangeFeed.changesSince(since, limit);
+    }
+
+    public SseEmitter subscribeToChanges(Long since) {
+        return productChangeFeed.subscribe(since);
+    }
+
+    /**
+     * Served from the in-memory counters; never scans the table.
+     */
+    public long getActiveProductCount() {
+        return productCounts.total();
+    }
+
+    /**
+     * Ranked full-text search over active product names and descriptions, served from memory.
+     */
+    public List<ProductResponse> searchProducts(String query, int limit) {
+        return productSearchIndex.search(query, limit);
+    }
+
+    /**
+     * Typeahead completions for {@code prefix}, served from memory.
+     */
+    public List<String> suggestProductNames(String prefix, int limit) {
+        return productSuggester.suggest(prefix, limit);
     }
 
     public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
-        return productMapper.toResponse(product);
+        return productCache.get(id, key -> productRepository.findResponseById(key)
+                .orElseThrow(() -> new RuntimeException("Product not found")));
     }
 
     @Transactional
     public ProductResponse createOrReactivateProduct(ProductRequest request) {
 
         String username = UserUtil.getCurrentUsername();
+        LocalDateTime now = LocalDateTime.now();
 
-        return productRepository.findByName(request.getName())
-                .map(existingProduct -> {
+        // Insert, or reactivate an inactive product of the same name, in a single statement
+        ProductResponse product = productRepository.upsertByName(request.getName(), request.getDescription(),
+                        request.getPrice(), request.getCategoryId(), username, now)
+                .orElseThrow(() -> categoryRepository.existsById(request.getCategoryId())
+                        ? new RuntimeException("Product with name '" + request.getName() + "' already exists")
+                        : new RuntimeException("Category not found"));
 
-                    if (!existingProduct.getActive()) {
+        // A fresh insert stamps both timestamps with the same value; a reactivation keeps created_at
+        ChangeType type = product.getCreatedAt().equals(product.getUpdatedAt())
+                ? ChangeType.CREATED
+                : ChangeType.REACTIVATED;
 
-                        existingProduct.setActive(true);
-                        existingProduct.setDescription(request.getDescription());
-                        existingProduct.setPrice(request.getPrice());
-                        existingProduct.setUpdatedBy(username);
+        return publish(type, null, product, username);
+    }
 
-                        Category category = categoryRepository.findById(request.getCategoryId())
-                                .orElseThrow(() -> new RuntimeException("Category not found"));
+    /**
+     * Replaces the product's fields. With {@code expectedVersion} the write only goes ahead while that
+     * version is current; without it, a write that loses a race is redone on top of the winner.
+     */
+    public ProductResponse updateProduct(Long id, ProductRequest request, Long expectedVersion) {
 
-                        existingProduct.setCategory(category);
+        String username = UserUtil.getCurrentUsername();
 
-                        return productMapper.toResponse(
-                                productRepository.save(existingProduct)
-                        );
+        return writeOptimistically(expectedVersion, () -> {
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Product not found"));
+            checkVersion(product, expectedVersion);
+            ProductResponse before = product.getActive() ? productMapper.toResponse(product) : null;
 
-                    } else {
-                        throw new RuntimeException(
-                                "Product with name '" + request.getName() + "' already exists"
-                        );
-                    }
-                })
-                .orElseGet(() -> {
+            product.setName(request.getName());
+            product.setDescription(request.getDescription());
+            product.setPrice(request.getPrice());
+            product.setUpdatedBy(username);
 
-                    Product product = new Product();
+            Category category = categoryRepository.findById(request.getCategoryId())
+                    .orElseThrow(() -> new RuntimeException("Category not found"));
 
-                    product.setName(request.getName());
-                    product.setDescription(request.getDescription());
-                    product.setPrice(request.getPrice());
-                    product.setCreatedBy(username);
-                    product.setUpdatedBy(username);
+            product.setCategory(category);
 
-                    Category category = categoryRepository.findById(request.getCategoryId())
-                            .orElseThrow(() -> new RuntimeException("Category not found"));
+            // Flushed here so the response carries the new version
+            return publish(ChangeType.UPDATED, before, productRepository.saveAndFlush(product), username);
+        });
+    }
 
-                    product.setCategory(category);
+    /**
+     * Moves the price by {@code percent}, rounded to cents. The adjustment is applied to whatever price
+     * is current when it commits: if another write lands first, it is recomputed from that one.
+     */
+    public ProductResponse adjustPrice(Long id, BigDecimal percent) {
 
-                    return productMapper.toResponse(
-                            productRepository.save(product)
-                    );
-                });
+        String username = UserUtil.getCurrentUsername();
+
+        return writeOptimistically(null, () -> {
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Product not found"));
+            ProductResponse before = product.getActive() ? productMapper.toResponse(product) : null;
+
+            BigDecimal price = product.getPrice()
+                    .multiply(BigDecimal.ONE.add(percent.movePointLeft(2)))
+                    .setScale(2, RoundingMode.HALF_UP);
+            if (price.compareTo(MIN_PRICE) < 0) {
+                throw new InvalidPriceException("Adjusted price must be greater than 0");
+            }
+            if (price.compareTo(MAX_PRICE) > 0) {
+                throw new InvalidPriceException("Adjusted price must not exceed " + MAX_PRICE);
+            }
+            product.setPrice(price);
+            product.setUpdatedBy(username);
+
+            return publish(ChangeType.UPDATED, before, productRepository.saveAndFlush(product), username);
+        });
     }
 
+    /**
+     * Changes only the fields present in {@code request}. The row is read, locked, updated and
+     * returned in a single statement, and the category is never loaded.
+     */
     @Transactional
-    public ProductResponse updateProduct(Long id, ProductRequest request) {
+    public ProductResponse patchProduct(Long id, ProductPatchRequest request, Long expectedVersion) {
 
         String username = UserUtil.getCurrentUsername();
 
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+        PatchedProduct patched = productRepository.patch(id, request, expectedVersion, username, LocalDateTime.now())
+                .orElseThrow(() -> {
+                    if (request.getCategoryId() != null && !categoryRepository.existsById(request.getCategoryId())) {
+                        return new RuntimeException("Category not found");
+                    }
+                    return expectedVersion != null && productRepository.existsById(id)
+                            ? new StaleVersionException()
+                            : new RuntimeException("Product not found");
+                });
+        ProductResponse before = Boolean.TRUE.equals(patched.getBefore().getActive()) ? patched.getBefore() : null;
 
-        product.setName(request.getName());
-        product.setDescription(request.getDescription());
-        product.setPrice(request.getPrice());
-        product.setUpdatedBy(username);
+        return publish(ChangeType.UPDATED, before, patched.getAfter(), username);
+    }
 
-        Category category = categoryRepository.findById(request.getCategoryId())
-                .orElseThrow(() -> new RuntimeException("Category not found"));
+    public void deactivateProduct(Long id, Long expectedVersion) {
 
-        product.setCategory(category);
+        String username = UserUtil.getCurrentUsername();
+
+        writeOptimistically(expectedVersion, () -> {
+            Product product = productRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Product not found"));
+            checkVersion(product, expectedVersion);
+            ProductResponse before = product.getActive() ? productMapper.toResponse(product) : null;
 
-        return productMapper.toResponse(
-                productRepository.save(product)
-        );
+            product.setActive(false);
+            product.setUpdatedBy(username);
+
+            return publish(ChangeType.DEACTIVATED, before, productRepository.saveAndFlush(product), username);
+        });
     }
 
-    @Transactional
-    public void deactivateProduct(Long id) {
+    /**
+     * Runs {@code write} in a transaction of its own. Another writer committing to the same row first
+     * fails a conditional write with {@link StaleVersionException}; an unconditional one is run again
+     * on the new state, up to {@link #MAX_WRITE_ATTEMPTS} times in all.
+     */
+    private <T> T writeOptimistically(Long expectedVersion, Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> write.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (expectedVersion != null) {
+                    throw new StaleVersionException();
+                }
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    throw new ConcurrentUpdateException(attempt);
+                }
+            }
+        }
+    }
+
+    private static void checkVersion(Product product, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(product.getVersion())) {
+            throw new StaleVersionException();
+        }
+    }
+
+    /**
+     * Creates, updates or reactivates products by name. Categories are resolved in one query for
+     * the whole import and existing products in one query per chunk; each chunk commits on its
+     * own so a failure only affects the rows of that chunk.
+     */
+    public BulkImportResponse bulkUpsertProducts(List<ProductRequest> requests) {
 
         String username = UserUtil.getCurrentUsername();
 
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+        Map<Long, Category> categories = categoryRepository.findAllById(requests.stream()
+                        .map(ProductRequest::getCategoryId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+
+        BulkProductResult[] results = new BulkProductResult[requests.size()];
+        Set<String> seenNames = new HashSet<>();
+        List<Integer> rows = new ArrayList<>(BULK_CHUNK_SIZE);
+
+        for (int index = 0; index < requests.size(); index++) {
+            ProductRequest request = requests.get(index);
+            String error = validateBulkRow(request, categories, seenNames);
+
+            if (error != null) {
+                results[index] = BulkProductResult.failed(index, request == null ? null : request.getName(), error);
+            } else {
+                rows.add(index);
+            }
 
-        product.setActive(false);
-        product.setUpdatedBy(username);
+            if (rows.size() == BULK_CHUNK_SIZE || (index == requests.size() - 1 && !rows.isEmpty())) {
+                importChunk(requests, rows, categories, username, results);
+                rows.clear();
+            }
+        }
+
+        return BulkImportResponse.of(Arrays.asList(results));
+    }
+
+    private String validateBulkRow(ProductRequest request, Map<Long, Category> categories, Set<String> seenNames) {
+        if (request == null) {
+            return "Row is empty";
+        }
+
+        Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (!categories.containsKey(request.getCategoryId())) {
+            return "Category not found";
+        }
+        if (!seenNames.add(request.getName())) {
+            return "Duplicate product name in request";
+        }
+        return null;
+    }
+
+    private void importChunk(List<ProductRequest> requests, List<Integer> rows, Map<Long, Category> categories,
+                             String username, BulkProductResult[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+
+                Map<String, Product> byName = productRepository.findByNameIn(rows.stream()
+                                .map(index -> requests.get(index).getName())
+                                .collect(Collectors.toList()))
+                        .stream()
+                        .collect(Collectors.toMap(Product::getName, Function.identity()));
+
+                List<Product> created = new ArrayList<>();
+                Map<String, ProductResponse> before = new HashMap<>();
+                for (Integer index : rows) {
+                    ProductRequest request = requests.get(index);
+                    Product product = byName.get(request.getName());
+                    BulkProductResult.Status outcome;
+
+                    if (product == null) {
+                        product = new Product();
+                        product.setName(request.getName());
+                        product.setCreatedBy(username);
+                        created.add(product);
+                        byName.put(product.getName(), product);
+                        outcome = BulkProductResult.Status.CREATED;
+                    } else if (!product.getActive()) {
+                        product.setActive(true);
+                        outcome = BulkProductResult.Status.REACTIVATED;
+                    } else {
+                        before.put(product.getName(), productMapper.toResponse(product));
+                        outcome = BulkProductResult.Status.UPDATED;
+                    }
+
+                    product.setDescription(request.getDescription());
+                    product.setPrice(request.getPrice());
+                    product.setCategory(categories.get(request.getCategoryId()));
+                    product.setUpdatedBy(username);
+
+                    results[index] = new BulkProductResult(index, request.getName(), outcome, null, null);
+                }
+
+                // Sequence ids are assigned here; the inserts themselves go out batched on flush
+                productRepository.saveAll(created);
+                entityManager.flush();
+
+                for (Integer index : rows) {
+                    BulkProductResult result = results[index];
+                    Product product = byName.get(result.getName());
+                    result.setId(product.getId());
+                    publish(toChangeType(result.getStatus()), before.get(result.getName()), product, username);
+                }
+
+                // Keep the persistence context from growing across chunks
+                entityManager.clear();
+            });
+        } catch (RuntimeException e) {
+            for (Integer index : rows) {
+                results[index] = BulkProductResult.failed(index, requests.get(index).getName(),
+                        "Chunk rolled back: " + e.getMessage());
+            }
+        }
+    }
+
+    private static ChangeType toChangeType(BulkProductResult.Status status) {
+        switch (status) {
+            case CREATED:
+                return ChangeType.CREATED;
+            case REACTIVATED:
+                return ChangeType.REACTIVATED;
+            default:
+                return ChangeType.UPDATED;
+        }
+    }
+
+    /**
+     * Announces a mutation; listeners act on it once the surrounding transaction commits.
+     */
+    private ProductResponse publish(ChangeType type, ProductResponse before, Product product, String username) {
+        return publish(type, before, productMapper.toResponse(product), username);
+    }
 
-        productRepository.save(product);
+    private ProductResponse publish(ChangeType type, ProductResponse before, ProductResponse product,
+                                    String username) {
+        eventPublisher.publishEvent(new ProductChangedEvent(type, product, before, username));
+        return product;
     }
 }
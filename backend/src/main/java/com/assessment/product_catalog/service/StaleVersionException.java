@@ -0,0 +1,15 @@
+package com.assessment.product_catalog.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A conditional write named a version of the product that is no longer current.
+ */
+@ResponseStatus(value = HttpStatus.PRECONDITION_FAILED, reason = "Product has changed, reload it and retry")
+public class StaleVersionException extends RuntimeException {
+
+    public StaleVersionException() {
+        super("Product has changed");
+    }
+}
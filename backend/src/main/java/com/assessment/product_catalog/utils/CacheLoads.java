@@ -0,0 +1,45 @@
+package com.assessment.product_catalog.utils;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+public class CacheLoads {
+
+    private CacheLoads() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Read-through lookup whose loader runs on the calling thread but outside the cache's map lock.
+     * A synchronous Caffeine load holds a synchronized hash bin for as long as it blocks on JDBC,
+     * which pins a virtual thread's carrier; here only an empty future is installed under the lock.
+     * Concurrent misses for the same key still share one load, and a failed load is not cached.
+     */
+    public static <K, V> V get(AsyncCache<K, V> cache, K key, Function<? super K, ? extends V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> created);
+
+        if (future == created) {
+            try {
+                V value = loader.apply(key);
+                created.complete(value);
+                return value;
+            } catch (RuntimeException | Error e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
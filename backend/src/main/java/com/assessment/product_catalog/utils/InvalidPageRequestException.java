@@ -0,0 +1,19 @@
+package com.assessment.product_catalog.utils;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * A product listing asked for a sort, direction, cursor or filter it cannot be served with.
+ */
+@ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid sort, direction, cursor or filter")
+public class InvalidPageRequestException extends RuntimeException {
+
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidPageRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
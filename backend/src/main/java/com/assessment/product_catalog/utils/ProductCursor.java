@@ -0,0 +1,69 @@
+package com.assessment.product_catalog.utils;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.dto.ProductSortField;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset page. Clients only ever see the encoded form,
+ * which is opaque to them and is handed back unchanged to fetch the next page.
+ * A null sort key is encoded by leaving the value out.
+ */
+@Getter
+public class ProductCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final ProductSortField sortField;
+    private final Sort.Direction direction;
+    private final Comparable<?> value;
+    private final Long id;
+
+    private ProductCursor(ProductSortField sortField, Sort.Direction direction, Comparable<?> value, Long id) {
+        this.sortField = sortField;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static ProductCursor after(ProductResponse last, ProductSortField sortField, Sort.Direction direction) {
+        return new ProductCursor(sortField, direction, sortField.valueOf(last), last.getId());
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, sortField.name(), direction.name(), String.valueOf(id));
+        if (value != null) {
+            raw += SEPARATOR + value;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor and checks it was issued for the same sort the caller is asking for.
+     */
+    public static ProductCursor decode(String token, ProductSortField sortField, Sort.Direction direction) {
+        ProductCursor cursor;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            ProductSortField field = ProductSortField.valueOf(parts[0]);
+            if (parts.length < 4 && !field.isNullable()) {
+                throw new IllegalArgumentException("Missing sort key");
+            }
+            Comparable<?> value = parts.length < 4 ? null : field.parse(parts[3]);
+
+            cursor = new ProductCursor(field, Sort.Direction.valueOf(parts[1]), value, Long.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw new InvalidPageRequestException("Invalid cursor", e);
+        }
+
+        if (cursor.sortField != sortField || cursor.direction != direction) {
+            throw new InvalidPageRequestException("Cursor does not match the requested sort");
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,281 @@
+package com.assessment.product_catalog.cache;
+
+import com.assessment.product_catalog.event.CatalogInvalidatedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent.ChangeType;
+import com.assessment.product_catalog.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.postgresql.core.Notification;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.assessment.product_catalog.cache.TestProducts.product;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogInvalidationBusTest {
+
+    private static final String CHANNEL = "catalog_invalidation";
+
+    /** Postgres rejects larger NOTIFY payloads. */
+    private static final int PAYLOAD_LIMIT = 8000;
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private ProductRepository productRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private ScriptedBus bus;
+
+    @BeforeEach
+    void setUp() {
+        bus = new ScriptedBus();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.destroy();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void splitsATransactionIntoMessagesOfAtMost300Ids() {
+        // 299 products and their one category fill the first message; the count change takes two more ids
+        commit(events(299, 0));
+
+        List<CatalogInvalidationBus.Message> messages = sent();
+        assertEquals(2, messages.size());
+        assertEquals(299, messages.get(0).getProducts().size());
+        assertEquals(List.of(1L), messages.get(0).getCategories());
+        assertTrue(messages.get(0).getCounts().isEmpty());
+        assertTrue(messages.get(1).getProducts().isEmpty());
+        assertEquals(Map.of(1L, 299L), messages.get(1).getCounts());
+    }
+
+    @Test
+    void keepsEveryMessageWithinThePayloadLimit() {
+        // A bulk change moving 2000 products between 4000 distinct categories, with ids as long as they get
+        long base = Long.MAX_VALUE - 10_000;
+        commit(events(2000, base));
+
+        Set<Long> products = new HashSet<>();
+        Set<Long> categories = new HashSet<>();
+        long countChanges = 0;
+        for (String payload : payloads()) {
+            assertTrue(payload.getBytes(StandardCharsets.UTF_8).length < PAYLOAD_LIMIT, payload);
+            CatalogInvalidationBus.Message message = jsonMapper.readValue(payload, CatalogInvalidationBus.Message.class);
+            assertTrue(message.getProducts().size() + message.getCategories().size()
+                    + 2 * message.getCounts().size() <= 300);
+            products.addAll(message.getProducts());
+            categories.addAll(message.getCategories());
+            countChanges += message.getCounts().size();
+        }
+        assertEquals(2000, products.size());
+        assertEquals(4000, categories.size());
+        // Each product left one category and joined another
+        assertEquals(4000, countChanges);
+    }
+
+    @Test
+    void appliesOtherNodesMessagesAndSkipsItsOwn() throws Exception {
+        commit(events(1, 0));
+        String own = payloads().get(0);
+        String other = jsonMapper.writeValueAsString(new CatalogInvalidationBus.Message("another-node", List.of(7L),
+                List.of(3L), Map.of(3L, 1L)));
+        when(productRepository.findResponsesByIdIn(List.of(7L))).thenReturn(List.of(product(7L, 3L, true)));
+        Listening listening = bus.connects();
+
+        bus.afterPropertiesSet();
+        listening.deliver(own);
+        listening.deliver(own, other);
+
+        ArgumentCaptor<CatalogInvalidatedEvent> published = ArgumentCaptor.forClass(CatalogInvalidatedEvent.class);
+        verify(eventPublisher, timeout(5000)).publishEvent(published.capture());
+        CatalogInvalidatedEvent event = published.getValue();
+        assertFalse(event.isEverything());
+        assertEquals(Set.of(7L), event.getProductIds());
+        assertEquals(Set.of(3L), event.getCategoryIds());
+        assertEquals(Map.of(3L, 1L), event.getActiveCountChanges());
+        assertEquals(7L, event.getProducts().get(0).getId());
+        // Its own message alone publishes nothing, and only the other node's product was read back
+        listening.awaitIdle();
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+        verify(productRepository, times(1)).findResponsesByIdIn(any());
+    }
+
+    @Test
+    void invalidatesEverythingOnceAfterReconnecting() throws Exception {
+        Listening lost = bus.connects();
+        Listening back = bus.connects();
+        when(lost.connection.isValid(anyInt())).thenReturn(false);
+
+        bus.afterPropertiesSet();
+        back.awaitIdle();
+
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) ->
+                event instanceof CatalogInvalidatedEvent invalidated && invalidated.isEverything()));
+        verify(lost.connection).close();
+    }
+
+    @Test
+    void invalidatesEverythingWhenTheFirstConnectionFails() throws Exception {
+        bus.failsToConnect();
+        Listening listening = bus.connects();
+
+        bus.afterPropertiesSet();
+        listening.awaitIdle();
+
+        verify(eventPublisher, times(1)).publishEvent(argThat((Object event) ->
+                event instanceof CatalogInvalidatedEvent invalidated && invalidated.isEverything()));
+    }
+
+    private List<ProductChangedEvent> events(int count, long base) {
+        return java.util.stream.LongStream.range(0, count)
+                .mapToObj(i -> base == 0
+                        ? new ProductChangedEvent(ChangeType.CREATED, product(i + 1, 1L, true), "test")
+                        : new ProductChangedEvent(ChangeType.UPDATED, product(base + i, base + 2 * i, true),
+                                product(base + i, base + 2 * i + 1, true), "test"))
+                .toList();
+    }
+
+    private void commit(List<ProductChangedEvent> events) {
+        TransactionSynchronizationManager.initSynchronization();
+        events.forEach(bus::onProductChanged);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(
+                TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private List<String> payloads() {
+        ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).queryForList(eq("SELECT pg_notify(?, ?)"), eq(CHANNEL),
+                payloads.capture());
+        return payloads.getAllValues();
+    }
+
+    private List<CatalogInvalidationBus.Message> sent() {
+        return payloads().stream()
+                .map(payload -> jsonMapper.readValue(payload, CatalogInvalidationBus.Message.class))
+                .toList();
+    }
+
+    /**
+     * A listening connection whose notifications the test hands out; it reports itself idle once the
+     * listener is waiting on it with nothing left to deliver.
+     */
+    private static final class Listening {
+
+        final Connection connection = mock(Connection.class);
+        final PGConnection pgConnection = mock(PGConnection.class);
+        final BlockingQueue<PGNotification[]> deliveries = new LinkedBlockingQueue<>();
+        final BlockingQueue<Boolean> polls = new LinkedBlockingQueue<>();
+
+        Listening() throws SQLException {
+            lenient().when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+            lenient().when(connection.isValid(anyInt())).thenReturn(true);
+            lenient().when(pgConnection.getNotifications(anyInt())).thenAnswer(invocation -> {
+                polls.add(deliveries.isEmpty());
+                try {
+                    return deliveries.poll(invocation.<Integer>getArgument(0), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    // Stopped by destroy(), like a socket closed under the real driver
+                    throw new SQLException("Connection closed", e);
+                }
+            });
+        }
+
+        void deliver(String... payloads) {
+            PGNotification[] notifications = new PGNotification[payloads.length];
+            for (int i = 0; i < payloads.length; i++) {
+                notifications[i] = new Notification(CHANNEL, 1, payloads[i]);
+            }
+            deliveries.add(notifications);
+        }
+
+        void awaitIdle() throws InterruptedException {
+            while (true) {
+                Boolean empty = polls.poll(5, TimeUnit.SECONDS);
+                assertNotNull(empty, "Listener stopped polling");
+                if (empty && deliveries.isEmpty()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands out scripted connections instead of opening real ones.
+     */
+    private final class ScriptedBus extends CatalogInvalidationBus {
+
+        private final Deque<Object> connects = new ArrayDeque<>();
+
+        ScriptedBus() {
+            super(CHANNEL, "jdbc:postgresql://unused", "user", "password", Duration.ofMillis(10),
+                    Duration.ofMillis(50), jdbcTemplate, jsonMapper, productRepository, transactionManager,
+                    eventPublisher);
+        }
+
+        Listening connects() throws SQLException {
+            Listening listening = new Listening();
+            synchronized (connects) {
+                connects.add(listening);
+            }
+            return listening;
+        }
+
+        void failsToConnect() {
+            synchronized (connects) {
+                connects.add(new SQLException("Connection refused"));
+            }
+        }
+
+        @Override
+        Connection listen() throws SQLException {
+            Object next;
+            synchronized (connects) {
+                next = connects.poll();
+            }
+            if (next == null || next instanceof SQLException) {
+                throw next == null ? new SQLException("No more connections") : (SQLException) next;
+            }
+            return ((Listening) next).connection;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.assessment.product_catalog.cache;
+
+import com.assessment.product_catalog.event.CatalogInvalidatedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent.ChangeType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.assessment.product_catalog.cache.TestProducts.product;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogVersionTest {
+
+    private final CatalogVersion version = new CatalogVersion();
+
+    @Test
+    void changesOnlyTheTagsOfTouchedCategories() {
+        String all = version.etag();
+        String first = version.etag(List.of(1L));
+        String second = version.etag(List.of(2L));
+        String both = version.etag(List.of(1L, 2L));
+
+        version.onProductChanged(new ProductChangedEvent(ChangeType.CREATED, product(1L, 1L, true), "test"));
+
+        assertNotEquals(all, version.etag());
+        assertNotEquals(first, version.etag(List.of(1L)));
+        assertEquals(second, version.etag(List.of(2L)));
+        assertNotEquals(both, version.etag(List.of(1L, 2L)));
+    }
+
+    @Test
+    void movingAProductChangesBothCategories() {
+        String first = version.etag(List.of(1L));
+        String second = version.etag(List.of(2L));
+
+        version.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, product(1L, 2L, true),
+                product(1L, 1L, true), "test"));
+
+        assertNotEquals(first, version.etag(List.of(1L)));
+        assertNotEquals(second, version.etag(List.of(2L)));
+    }
+
+    @Test
+    void editingAnInactiveProductLeavesCategoryTagsAlone() {
+        String first = version.etag(List.of(1L));
+
+        version.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, product(1L, 1L, false), "test"));
+
+        assertEquals(first, version.etag(List.of(1L)));
+    }
+
+    @Test
+    void invalidationFromAnotherNodeChangesTheNamedCategories() {
+        String first = version.etag(List.of(1L));
+        String second = version.etag(List.of(2L));
+
+        version.onCatalogInvalidated(new CatalogInvalidatedEvent(Set.of(7L), Set.of(2L), List.of(), Map.of()));
+
+        assertEquals(first, version.etag(List.of(1L)));
+        assertNotEquals(second, version.etag(List.of(2L)));
+    }
+
+    @Test
+    void fullInvalidationChangesEveryTag() {
+        String all = version.etag();
+        String unseen = version.etag(List.of(9L));
+
+        version.onCatalogInvalidated(CatalogInvalidatedEvent.everything());
+
+        assertNotEquals(all, version.etag());
+        assertNotEquals(unseen, version.etag(List.of(9L)));
+    }
+}
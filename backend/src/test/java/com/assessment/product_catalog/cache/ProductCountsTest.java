@@ -0,0 +1,87 @@
+package com.assessment.product_catalog.cache;
+
+import com.assessment.product_catalog.dto.ProductFacets.CategoryCount;
+import com.assessment.product_catalog.dto.ProductFilter;
+import com.assessment.product_catalog.event.CatalogInvalidatedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent.ChangeType;
+import com.assessment.product_catalog.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.assessment.product_catalog.cache.TestProducts.product;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCountsTest {
+
+    @Mock private ProductRepository productRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private ProductCounts counts;
+
+    @BeforeEach
+    void setUp() {
+        counts = new ProductCounts(productRepository, new CatalogVersion(), transactionManager);
+    }
+
+    @Test
+    void followsCreatesMovesAndDeactivations() {
+        counts.onProductChanged(new ProductChangedEvent(ChangeType.CREATED, product(1L, 10L, true), "test"));
+        counts.onProductChanged(new ProductChangedEvent(ChangeType.CREATED, product(2L, 10L, true), "test"));
+        counts.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, product(2L, 20L, true),
+                product(2L, 10L, true), "test"));
+
+        assertEquals(2, counts.total());
+        assertEquals(1, counts.forCategory(10L));
+        assertEquals(1, counts.forCategory(20L));
+
+        counts.onProductChanged(new ProductChangedEvent(ChangeType.DEACTIVATED, product(1L, 10L, false),
+                product(1L, 10L, true), "test"));
+        // Editing an inactive product leaves every count alone
+        counts.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, product(1L, 20L, false), "test"));
+
+        assertEquals(1, counts.total());
+        assertEquals(0, counts.forCategory(10L));
+        assertEquals(1, counts.forCategory(20L));
+    }
+
+    @Test
+    void appliesAnotherNodesCountChangesWithoutQuerying() {
+        counts.onProductChanged(new ProductChangedEvent(ChangeType.CREATED, product(1L, 10L, true), "test"));
+
+        counts.onCatalogInvalidated(new CatalogInvalidatedEvent(Set.of(2L, 3L), Set.of(10L, 20L), List.of(),
+                Map.of(10L, -1L, 20L, 2L)));
+
+        assertEquals(2, counts.total());
+        assertEquals(0, counts.forCategory(10L));
+        assertEquals(2, counts.forCategory(20L));
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void reconcileCorrectsDrift() {
+        counts.onProductChanged(new ProductChangedEvent(ChangeType.CREATED, product(1L, 10L, true), "test"));
+        counts.onProductChanged(new ProductChangedEvent(ChangeType.CREATED, product(2L, 30L, true), "test"));
+        when(productRepository.countActiveByCategory(any(ProductFilter.class))).thenReturn(List.of(
+                new CategoryCount(10L, 4), new CategoryCount(20L, 3)));
+
+        counts.reconcile();
+
+        assertEquals(7, counts.total());
+        assertEquals(4, counts.forCategory(10L));
+        assertEquals(3, counts.forCategory(20L));
+        assertEquals(0, counts.forCategory(30L));
+    }
+}
@@ -0,0 +1,102 @@
+package com.assessment.product_catalog.cache;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSnapshotTest {
+
+    @Mock private ProductRepository productRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private ProductSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = new ProductSnapshot(productRepository, new CatalogVersion(), jsonMapper, transactionManager,
+                new SimpleMeterRegistry(), Duration.ofMillis(10));
+    }
+
+    @Test
+    void holdsTheCatalogAsJsonAndGzip() throws Exception {
+        when(productRepository.streamActive()).thenReturn(Stream.of(product(1L, "Lamp"), product(2L, "Desk")));
+
+        snapshot.rebuild();
+
+        ProductSnapshot.Snapshot current = snapshot.current();
+        String json = text(current.body(false));
+        assertEquals(2, current.getProducts());
+        assertEquals(jsonMapper.writeValueAsString(new ProductResponse[] {product(1L, "Lamp"), product(2L, "Desk")}),
+                json);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes(current.body(true))))) {
+            assertEquals(json, new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void readersGetIndependentViews() {
+        when(productRepository.streamActive()).thenReturn(Stream.empty());
+
+        snapshot.rebuild();
+
+        ProductSnapshot.Snapshot current = snapshot.current();
+        assertEquals("[]", text(current.body(false)));
+        assertEquals("[]", text(current.body(false)));
+        assertTrue(current.body(false).isDirect());
+    }
+
+    @Test
+    void rebuildsIntoBuffersSizedFromThePreviousSnapshot() {
+        List<ProductResponse> large = LongStream.rangeClosed(1, 3000).mapToObj(id -> product(id, "Product " + id))
+                .toList();
+        when(productRepository.streamActive()).thenReturn(large.stream(), large.stream().limit(10));
+
+        snapshot.rebuild();
+        assertEquals(jsonMapper.writeValueAsString(large), text(snapshot.current().body(false)));
+
+        snapshot.rebuild();
+        assertEquals(jsonMapper.writeValueAsString(large.subList(0, 10)), text(snapshot.current().body(false)));
+        assertEquals(10, snapshot.current().getProducts());
+    }
+
+    private static ProductResponse product(Long id, String name) {
+        ProductResponse response = new ProductResponse();
+        response.setId(id);
+        response.setName(name);
+        response.setPrice(new BigDecimal("9.99"));
+        response.setActive(true);
+        return response;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static String text(ByteBuffer buffer) {
+        return new String(bytes(buffer), StandardCharsets.UTF_8);
+    }
+}
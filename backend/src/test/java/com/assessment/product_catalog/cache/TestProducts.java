@@ -0,0 +1,20 @@
+package com.assessment.product_catalog.cache;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+
+/**
+ * Products carrying just what the cache tests look at: the id, the category and whether they are active.
+ */
+final class TestProducts {
+
+    private TestProducts() {
+    }
+
+    static ProductResponse product(Long id, Long categoryId, boolean active) {
+        ProductResponse product = new ProductResponse();
+        product.setId(id);
+        product.setCategoryId(categoryId);
+        product.setActive(active);
+        return product;
+    }
+}
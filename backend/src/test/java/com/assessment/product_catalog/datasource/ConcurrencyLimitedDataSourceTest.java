@@ -0,0 +1,63 @@
+package com.assessment.product_catalog.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitedDataSourceTest {
+
+    @Mock private DataSource target;
+    @Mock private Connection connection;
+
+    private ConcurrencyLimitedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(target.getConnection()).thenReturn(connection);
+        dataSource = new ConcurrencyLimitedDataSource(target, "primary", 1, 0, Duration.ofMillis(10));
+    }
+
+    @Test
+    void rejectsCallersBeyondThePoolAndTheQueue() throws SQLException {
+        Connection first = dataSource.getConnection();
+
+        assertThrows(DatabaseBusyException.class, dataSource::getConnection);
+
+        first.close();
+        first.close();
+        verify(connection).close();
+
+        Connection second = dataSource.getConnection();
+        assertThrows(DatabaseBusyException.class, dataSource::getConnection);
+        second.close();
+    }
+
+    @Test
+    void waitingCallersTimeOut() throws SQLException {
+        dataSource = new ConcurrencyLimitedDataSource(target, "primary", 1, 1, Duration.ofMillis(10));
+        dataSource.getConnection();
+
+        DatabaseBusyException busy = assertThrows(DatabaseBusyException.class, dataSource::getConnection);
+        assertTrue(busy.getMessage().startsWith("Timed out"));
+    }
+
+    @Test
+    void failedCheckoutReturnsItsPermit() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("down")).thenReturn(connection);
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertNotNull(dataSource.getConnection());
+    }
+}
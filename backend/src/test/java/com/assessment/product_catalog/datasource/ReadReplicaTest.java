@@ -0,0 +1,102 @@
+package com.assessment.product_catalog.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.TransactionExecution;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadReplicaTest {
+
+    private ReadReplica replica;
+
+    @AfterEach
+    void tearDown() {
+        replica.destroy();
+    }
+
+    @Test
+    void isUsedOnlyOnceAProbeSeesItCaughtUp() {
+        replica = replica("jdbc:h2:mem:replica-caught-up");
+
+        assertFalse(replica.isCurrent());
+
+        replica.recordProbe(System.nanoTime(), true);
+
+        assertTrue(replica.isCurrent());
+    }
+
+    @Test
+    void writesCommittedHereKeepReadsOnThePrimaryUntilReplayed() {
+        replica = replica("jdbc:h2:mem:replica-writes");
+        replica.recordProbe(System.nanoTime(), true);
+        TransactionExecution write = transaction(false);
+
+        replica.beforeCommit(write);
+        assertFalse(replica.isCurrent());
+
+        replica.afterCommit(write, null);
+        assertFalse(replica.isCurrent());
+
+        replica.recordProbe(System.nanoTime(), true);
+        assertTrue(replica.isCurrent());
+
+        TransactionExecution read = transaction(true);
+        replica.beforeCommit(read);
+        replica.afterCommit(read, null);
+        assertTrue(replica.isCurrent());
+    }
+
+    @Test
+    void lagBeyondTheLimitFallsBackToThePrimary() {
+        replica = replica("jdbc:h2:mem:replica-lagging");
+        long caughtUp = System.nanoTime();
+        replica.recordProbe(caughtUp, true);
+
+        replica.recordProbe(caughtUp + Duration.ofMillis(500).toNanos(), false);
+        assertTrue(replica.isCurrent());
+
+        replica.recordProbe(caughtUp + Duration.ofSeconds(2).toNanos(), false);
+        assertFalse(replica.isCurrent());
+        assertEquals(2.0, replica.lagSeconds(), 0.001);
+    }
+
+    @Test
+    void servesReadsFromTheReplicaAndFallsBackWhenItIsUnreachable() throws Exception {
+        DataSource primary = mock(DataSource.class);
+        Connection primaryConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        replica = replica("jdbc:h2:mem:replica-reads");
+        replica.recordProbe(System.nanoTime(), true);
+        try (Connection connection = replica.getReadOnlyConnection(primary)) {
+            assertTrue(connection.getMetaData().getURL().contains("replica-reads"));
+        }
+        replica.destroy();
+
+        replica = replica("jdbc:h2:tcp://localhost:1/unreachable");
+        replica.recordProbe(System.nanoTime(), true);
+
+        assertSame(primaryConnection, replica.getReadOnlyConnection(primary));
+        assertFalse(replica.isCurrent());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ReadReplica replica(String url) {
+        return new ReadReplica(url, "sa", "", 2, Duration.ofSeconds(1), Duration.ofSeconds(10), 0,
+                Duration.ofMillis(100), mock(ObjectProvider.class));
+    }
+
+    private static TransactionExecution transaction(boolean readOnly) {
+        TransactionExecution transaction = mock(TransactionExecution.class);
+        when(transaction.isReadOnly()).thenReturn(readOnly);
+        return transaction;
+    }
+}
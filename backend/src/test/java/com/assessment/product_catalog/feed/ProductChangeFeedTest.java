@@ -0,0 +1,195 @@
+package com.assessment.product_catalog.feed;
+
+import com.assessment.product_catalog.dto.ProductChange;
+import com.assessment.product_catalog.dto.ProductChangePage;
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.event.CatalogInvalidatedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent.ChangeType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductChangeFeedTest {
+
+    private ProductChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new ProductChangeFeed(3, Duration.ofMinutes(1), Duration.ofMinutes(1), 1, Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.destroy();
+    }
+
+    @Test
+    void numbersChangesInCommitOrderAndPagesThroughThem() {
+        long start = feed.lastSequence();
+        feed.onProductChanged(event(ChangeType.CREATED, 1L));
+        feed.onProductChanged(event(ChangeType.UPDATED, 2L));
+        feed.onProductChanged(event(ChangeType.DEACTIVATED, 1L));
+
+        ProductChangePage first = feed.changesSince(start, 2);
+
+        assertEquals(List.of(start + 1, start + 2), sequences(first));
+        assertEquals(ChangeType.CREATED, first.getChanges().get(0).getType());
+        assertTrue(first.isHasMore());
+
+        ProductChangePage rest = feed.changesSince(first.getLastSequence(), 2);
+
+        assertEquals(List.of(start + 3), sequences(rest));
+        assertEquals(1L, rest.getChanges().get(0).getProduct().getId());
+        assertFalse(rest.isHasMore());
+        assertTrue(feed.changesSince(rest.getLastSequence(), 2).getChanges().isEmpty());
+    }
+
+    @Test
+    void positionsOutsideTheRetainedWindowRequireResync() {
+        long start = feed.lastSequence();
+        for (long id = 1; id <= 4; id++) {
+            feed.onProductChanged(event(ChangeType.CREATED, id));
+        }
+
+        // Retention is 3, so the first change has been overwritten
+        assertThrows(ResyncRequiredException.class, () -> feed.changesSince(start, 10));
+        assertEquals(List.of(start + 2, start + 3, start + 4), sequences(feed.changesSince(start + 1, 10)));
+        // A position this node never issued, e.g. from before a restart of another node
+        assertThrows(ResyncRequiredException.class, () -> feed.changesSince(start + 5, 10));
+        assertThrows(ResyncRequiredException.class, () -> feed.subscribe(start - 1));
+    }
+
+    @Test
+    void changesFromOtherNodesAreAppendedInTheirCurrentState() {
+        long start = feed.lastSequence();
+        ProductResponse renamed = product(1L, true);
+        ProductResponse deactivated = product(2L, false);
+
+        feed.onCatalogInvalidated(new CatalogInvalidatedEvent(Set.of(1L, 2L), Set.of(), List.of(renamed, deactivated),
+                Map.of()));
+
+        List<ProductChange> changes = feed.changesSince(start, 10).getChanges();
+        assertEquals(List.of(ChangeType.UPDATED, ChangeType.DEACTIVATED),
+                changes.stream().map(ProductChange::getType).toList());
+        assertSame(renamed, changes.get(0).getProduct());
+        assertEquals("elsewhere", changes.get(1).getChangedBy());
+    }
+
+    @Test
+    void missedChangesOnAnotherNodeResyncEveryPositionAndStream() throws Exception {
+        feed.onProductChanged(event(ChangeType.CREATED, 1L));
+        long upToDate = feed.lastSequence();
+        CountingEmitter stream = new CountingEmitter("resync", 1);
+        feed.subscribe(upToDate, stream);
+
+        feed.onCatalogInvalidated(CatalogInvalidatedEvent.everything());
+
+        assertThrows(ResyncRequiredException.class, () -> feed.changesSince(upToDate, 10));
+        assertTrue(stream.changes.await(5, TimeUnit.SECONDS));
+        // Clients that reload continue from the current position
+        feed.onProductChanged(event(ChangeType.UPDATED, 1L));
+        assertEquals(1, feed.changesSince(feed.lastSequence() - 1, 10).getChanges().size());
+    }
+
+    @Test
+    void clientsThatStopReadingDoNotHoldUpTheOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // The only delivery thread blocks writing to the first client
+            StalledEmitter first = new StalledEmitter(release);
+            feed.subscribe(null, first);
+            feed.onProductChanged(event(ChangeType.CREATED, 1L));
+            assertTrue(first.blocked.await(5, TimeUnit.SECONDS));
+
+            // Queued behind it: another client that never reads, and one that does
+            feed.subscribe(null, new StalledEmitter(release));
+            CountingEmitter reader = new CountingEmitter("change", 2);
+            feed.subscribe(null, reader);
+            feed.onProductChanged(event(ChangeType.UPDATED, 1L));
+            feed.onProductChanged(event(ChangeType.UPDATED, 2L));
+
+            assertTrue(reader.changes.await(5, TimeUnit.SECONDS));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (feed.subscriberCount() > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, feed.subscriberCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Accepts the subscription comment, then blocks on every write like a client whose socket buffer is full.
+     */
+    private static final class StalledEmitter extends SseEmitter {
+
+        private final CountDownLatch release;
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final AtomicInteger sends = new AtomicInteger();
+
+        StalledEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (sends.getAndIncrement() > 0) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Broken pipe");
+            }
+        }
+    }
+
+    private static final class CountingEmitter extends SseEmitter {
+
+        private final String event;
+        private final CountDownLatch changes;
+
+        CountingEmitter(String event, int expected) {
+            this.event = "event:" + event;
+            this.changes = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            if (builder.build().stream().anyMatch(item -> String.valueOf(item.getData()).contains(event))) {
+                changes.countDown();
+            }
+        }
+    }
+
+    private static ProductChangedEvent event(ChangeType type, Long id) {
+        return new ProductChangedEvent(type, product(id, type != ChangeType.DEACTIVATED), "test");
+    }
+
+    private static ProductResponse product(Long id, boolean active) {
+        ProductResponse product = new ProductResponse();
+        product.setId(id);
+        product.setActive(active);
+        product.setUpdatedBy("elsewhere");
+        return product;
+    }
+
+    private static List<Long> sequences(ProductChangePage page) {
+        return page.getChanges().stream().map(ProductChange::getSequence).toList();
+    }
+}
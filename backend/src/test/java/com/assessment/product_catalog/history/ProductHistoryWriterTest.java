@@ -0,0 +1,143 @@
+package com.assessment.product_catalog.history;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.entity.ProductHistory;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent.ChangeType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class ProductHistoryWriterTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private final List<String> inserts = new CopyOnWriteArrayList<>();
+    /** Batches to fail with a timeout before the database answers again. */
+    private final AtomicInteger outages = new AtomicInteger();
+    /** Products whose history rows the database rejects. */
+    private Set<Long> refused = Set.of();
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            if (outages.getAndUpdate(left -> Math.max(left - 1, 0)) > 0) {
+                throw new QueryTimeoutException("Timed out");
+            }
+            Collection<?> entries = invocation.getArgument(1);
+            for (Object entry : entries) {
+                if (refused.contains(((ProductHistory) entry).getProductId())) {
+                    throw new DataIntegrityViolationException("Rejected " + ((ProductHistory) entry).getProductId());
+                }
+            }
+            for (Object entry : entries) {
+                ProductHistory history = (ProductHistory) entry;
+                inserts.add(Thread.currentThread().getName() + ":" + history.getProductId());
+            }
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(eq(ProductHistoryWriter.INSERT), any(Collection.class), anyInt(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void writesCommittedChangesInTheBackgroundAndDrainsOnShutdown() throws Exception {
+        ProductHistoryWriter writer = writer(10);
+
+        transaction(writer, TransactionSynchronization.STATUS_COMMITTED, 1L, 2L);
+        transaction(writer, TransactionSynchronization.STATUS_ROLLED_BACK, 3L);
+        transaction(writer, TransactionSynchronization.STATUS_COMMITTED, 4L);
+        writer.destroy();
+
+        assertEquals(List.of("product-history-writer:1", "product-history-writer:2", "product-history-writer:4"),
+                inserts);
+        assertEquals(0, writer.pending());
+    }
+
+    @Test
+    void transactionsThatFindTheQueueFullWriteTheirOwnHistory() throws Exception {
+        ProductHistoryWriter writer = writer(2);
+
+        transaction(writer, TransactionSynchronization.STATUS_COMMITTED, 1L, 2L, 3L);
+
+        // Inserted by the committing thread itself, before the commit
+        String self = Thread.currentThread().getName();
+        assertEquals(List.of(self + ":1", self + ":2", self + ":3"), inserts);
+        assertEquals(0, writer.pending());
+        writer.destroy();
+    }
+
+    @Test
+    void retriesOutagesAndDropsOnlyTheRowsTheDatabaseRejects() throws Exception {
+        ProductHistoryWriter writer = writer(10);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        writer.bindTo(registry);
+        outages.set(2);
+        refused = Set.of(3L, 6L);
+
+        transaction(writer, TransactionSynchronization.STATUS_COMMITTED, 1L, 2L, 3L, 4L, 5L, 6L, 7L);
+        writer.destroy();
+
+        assertEquals(List.of(1L, 2L, 4L, 5L, 7L), inserts.stream()
+                .map(insert -> Long.valueOf(insert.substring(insert.indexOf(':') + 1))).sorted().toList());
+        assertEquals(2, registry.get("catalog.history.rejected").functionCounter().count());
+        assertEquals(2, registry.get("catalog.history.failures").functionCounter().count());
+        assertEquals(0, writer.pending());
+    }
+
+    private ProductHistoryWriter writer(int capacity) {
+        return new ProductHistoryWriter(capacity, 500, Duration.ofMillis(10), Duration.ofSeconds(5),
+                jdbcTemplate, transactionManager);
+    }
+
+    private static void transaction(ProductHistoryWriter writer, int outcome, Long... productIds) {
+        TransactionSynchronizationManager.initSynchronization();
+        for (Long id : productIds) {
+            writer.onProductChanged(event(id));
+        }
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        if (outcome == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(outcome));
+    }
+
+    private static ProductChangedEvent event(Long id) {
+        ProductResponse product = new ProductResponse();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setActive(true);
+        return new ProductChangedEvent(ChangeType.UPDATED, product, "test");
+    }
+}
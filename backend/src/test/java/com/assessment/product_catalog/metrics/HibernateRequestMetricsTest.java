@@ -0,0 +1,43 @@
+package com.assessment.product_catalog.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HibernateRequestMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HibernateRequestMetrics metrics = new HibernateRequestMetrics(registry);
+
+    @Test
+    void recordsStatementsPreparedDuringTheRequest() throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        metrics.customize(properties);
+        StatementInspector inspector = (StatementInspector) properties.get(AvailableSettings.STATEMENT_INSPECTOR);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/1");
+        metrics.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            inspector.inspect("select 1");
+            inspector.inspect("select 2");
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/products/{id}");
+        });
+        // Outside a request nothing is attributed
+        inspector.inspect("select 3");
+
+        DistributionSummary statements = registry.get("hibernate.request.statements")
+                .tag("uri", "/api/products/{id}")
+                .summary();
+        assertEquals(1, statements.count());
+        assertEquals(2, statements.totalAmount());
+    }
+}
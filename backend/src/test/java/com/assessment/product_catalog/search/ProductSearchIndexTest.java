@@ -0,0 +1,122 @@
+package com.assessment.product_catalog.search;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.event.CatalogInvalidatedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent.ChangeType;
+import com.assessment.product_catalog.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock private ProductRepository productRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(productRepository, transactionManager, 50);
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        index.onProductChanged(created(1L, "Desk lamp", "Bright light for a laptop desk"));
+        index.onProductChanged(created(2L, "Gaming laptop", "Fast machine"));
+        index.onProductChanged(created(3L, "Chair", "Ergonomic"));
+
+        List<ProductResponse> results = index.search("laptop", 10);
+
+        assertEquals(List.of(2L, 1L), ids(results));
+    }
+
+    @Test
+    void matchesPrefixesCaseAndAccentsInsensitively() {
+        index.onProductChanged(created(1L, "Café Table", null));
+        index.onProductChanged(created(2L, "Laptop Stand", null));
+
+        assertEquals(List.of(1L), ids(index.search("CAFE", 10)));
+        assertEquals(List.of(2L), ids(index.search("lap", 10)));
+        assertTrue(index.search("   ", 10).isEmpty());
+    }
+
+    @Test
+    void appliesUpdatesAndDeactivations() {
+        index.onProductChanged(created(1L, "Old name", null));
+        index.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, response(1L, "New name", null), "test"));
+
+        assertTrue(index.search("old", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("new", 10)));
+
+        index.onProductChanged(new ProductChangedEvent(ChangeType.DEACTIVATED, inactive(1L, "New name"), "test"));
+
+        assertTrue(index.search("new", 10).isEmpty());
+        assertEquals(0, index.size());
+
+        index.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, inactive(1L, "Still inactive"), "test"));
+
+        assertTrue(index.search("inactive", 10).isEmpty());
+    }
+
+    @Test
+    void appliesProductsChangedOnAnotherNode() {
+        index.onProductChanged(created(1L, "Old name", null));
+        index.onProductChanged(created(2L, "Lamp", null));
+
+        index.onCatalogInvalidated(new CatalogInvalidatedEvent(Set.of(1L, 2L), Set.of(),
+                List.of(response(1L, "New name", null), inactive(2L, "Lamp")), Map.of()));
+
+        assertTrue(index.search("old", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("new", 10)));
+        assertTrue(index.search("lamp", 10).isEmpty());
+    }
+
+    @Test
+    void rebuildLoadsActiveProducts() {
+        when(productRepository.streamActive()).thenReturn(Stream.of(
+                response(1L, "Monitor", "4K display"),
+                response(2L, "Keyboard", "Mechanical")));
+
+        index.rebuild();
+
+        assertEquals(2, index.size());
+        assertEquals(List.of(1L), ids(index.search("display", 10)));
+    }
+
+    private static ProductChangedEvent created(Long id, String name, String description) {
+        return new ProductChangedEvent(ChangeType.CREATED, response(id, name, description), "test");
+    }
+
+    private static ProductResponse response(Long id, String name, String description) {
+        ProductResponse response = new ProductResponse();
+        response.setId(id);
+        response.setName(name);
+        response.setActive(true);
+        response.setDescription(description);
+        return response;
+    }
+
+    private static ProductResponse inactive(Long id, String name) {
+        ProductResponse response = response(id, name, null);
+        response.setActive(false);
+        return response;
+    }
+
+    private static List<Long> ids(List<ProductResponse> results) {
+        return results.stream().map(ProductResponse::getId).toList();
+    }
+}
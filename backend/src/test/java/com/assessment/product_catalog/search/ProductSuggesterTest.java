@@ -0,0 +1,99 @@
+package com.assessment.product_catalog.search;
+
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent.ChangeType;
+import com.assessment.product_catalog.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSuggesterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Mock private ProductRepository productRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    @Test
+    void suggestsMostRecentlyUpdatedNamesFirst() {
+        when(productRepository.streamActive()).thenReturn(Stream.of(
+                product(1L, "Laptop Stand", 3),
+                product(2L, "Lamp", 1),
+                product(3L, "laptop bag", 2),
+                product(4L, "Chair", 0)));
+        ProductSuggester suggester = new ProductSuggester(productRepository, transactionManager, 100);
+        suggester.rebuild();
+
+        assertEquals(List.of("Laptop Stand", "laptop bag", "Lamp"), suggester.suggest("LA", 10));
+        assertEquals(List.of("Laptop Stand", "laptop bag"), suggester.suggest("lapt", 10));
+        assertEquals(List.of("Laptop Stand"), suggester.suggest("la", 1));
+        assertTrue(suggester.suggest("x", 10).isEmpty());
+    }
+
+    @Test
+    void followsCreatesRenamesAndDeactivations() {
+        ProductSuggester suggester = new ProductSuggester(productRepository, transactionManager, 100);
+
+        suggester.onProductChanged(new ProductChangedEvent(ChangeType.CREATED, product(1L, "Café Table", 0), "test"));
+        assertEquals(List.of("Café Table"), suggester.suggest("cafe", 10));
+
+        suggester.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, product(1L, "Coffee Table", 1),
+                product(1L, "Café Table", 0), "test"));
+        assertTrue(suggester.suggest("caf", 10).isEmpty());
+        assertEquals(List.of("Coffee Table"), suggester.suggest("coffee", 10));
+
+        suggester.onProductChanged(new ProductChangedEvent(ChangeType.DEACTIVATED,
+                inactive(product(1L, "Coffee Table", 2)), product(1L, "Coffee Table", 1), "test"));
+        assertTrue(suggester.suggest("coffee", 10).isEmpty());
+        assertEquals(0, suggester.size());
+    }
+
+    @Test
+    void removesNamesHeldInTheCompactDictionary() {
+        List<ProductResponse> products = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            products.add(product((long) i, String.format("Item %03d", i), i));
+        }
+        when(productRepository.streamActive()).thenReturn(products.stream());
+        ProductSuggester suggester = new ProductSuggester(productRepository, transactionManager, 1000);
+        suggester.rebuild();
+
+        assertEquals(List.of("Item 099", "Item 098"), suggester.suggest("item", 2));
+
+        suggester.onProductChanged(new ProductChangedEvent(ChangeType.DEACTIVATED,
+                inactive(product(99L, "Item 099", 99)), products.get(99), "test"));
+
+        assertEquals(List.of("Item 098", "Item 097"), suggester.suggest("item", 2));
+        assertEquals(List.of("Item 050"), suggester.suggest("item 050", 5));
+        assertEquals(99, suggester.size());
+    }
+
+    private static ProductResponse inactive(ProductResponse product) {
+        product.setActive(false);
+        return product;
+    }
+
+    /**
+     * Higher {@code recency} means a more recent update.
+     */
+    private static ProductResponse product(Long id, String name, int recency) {
+        ProductResponse response = new ProductResponse();
+        response.setId(id);
+        response.setName(name);
+        response.setActive(true);
+        response.setUpdatedAt(NOW.plusMinutes(recency));
+        return response;
+    }
+}
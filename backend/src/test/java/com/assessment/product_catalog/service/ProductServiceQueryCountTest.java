@@ -0,0 +1,224 @@
+package com.assessment.product_catalog.service;
+
+import com.assessment.product_catalog.cache.CatalogVersion;
+import com.assessment.product_catalog.cache.ProductCache;
+import com.assessment.product_catalog.cache.ProductCounts;
+import com.assessment.product_catalog.cache.ProductSnapshot;
+import com.assessment.product_catalog.dto.ProductFacets;
+import com.assessment.product_catalog.dto.ProductFilter;
+import com.assessment.product_catalog.dto.ProductPage;
+import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.dto.ProductSortField;
+import com.assessment.product_catalog.entity.Category;
+import com.assessment.product_catalog.entity.Product;
+import com.assessment.product_catalog.feed.ProductChangeFeed;
+import com.assessment.product_catalog.mapper.ProductMapper;
+import com.assessment.product_catalog.search.ProductSearchIndex;
+import com.assessment.product_catalog.search.ProductSuggester;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Every read endpoint must cost exactly one SQL statement, however many products and
+ * categories are involved.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "catalog.cache.product.max-size=100",
+        "catalog.cache.product.ttl=1m",
+        "catalog.counts.reconcile-interval=1h",
+        "catalog.snapshot.debounce=1s",
+        "catalog.changes.retention=100",
+        "catalog.changes.heartbeat=1m",
+        "catalog.changes.subscription-timeout=1m",
+        "catalog.changes.delivery-threads=1"
+})
+@Import({ProductService.class, ProductMapper.class, ProductCache.class, ProductCounts.class, CatalogVersion.class,
+        ProductSnapshot.class, ProductChangeFeed.class, ProductSearchIndex.class, ProductSuggester.class, ProductServiceQueryCountTest.Config.class})
+class ProductServiceQueryCountTest {
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        JsonMapper jsonMapper() {
+            return JsonMapper.builder().build();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        Validator validator() {
+            return Validation.buildDefaultValidatorFactory().getValidator();
+        }
+    }
+
+    @Autowired private ProductService productService;
+    @Autowired private ProductCounts productCounts;
+    @Autowired private EntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long categoryId;
+
+    @BeforeEach
+    void setUp() {
+        // Categories are seeded with SQL, as in the README
+        for (long c = 1; c <= 3; c++) {
+            entityManager.createNativeQuery("INSERT INTO categories (id, name, active, created_at, created_by, "
+                            + "updated_at, updated_by) VALUES (?, ?, true, ?, 'test', ?, 'test')")
+                    .setParameter(1, c)
+                    .setParameter(2, "Category " + c)
+                    .setParameter(3, LocalDateTime.now())
+                    .setParameter(4, LocalDateTime.now())
+                    .executeUpdate();
+            Category category = entityManager.getReference(Category.class, c);
+            categoryId = c;
+
+            for (int p = 0; p < 5; p++) {
+                Product product = new Product();
+                product.setName("Product " + c + "-" + p);
+                product.setPrice(BigDecimal.valueOf(10L * (p + 1)));
+                product.setCategory(category);
+                product.setCreatedBy("test");
+                product.setUpdatedBy("test");
+                entityManager.persist(product);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listActiveProductsRunsOneStatement() {
+        ProductPage page = productService.getActiveProducts(ProductFilter.none(), ProductSortField.UPDATED_AT,
+                Sort.Direction.DESC, null, 10, false);
+
+        assertEquals(10, page.getItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void cursorPagesReachProductsWithoutUpdatedAtInBothDirections() {
+        entityManager.createNativeQuery("UPDATE products SET updated_at = NULL WHERE price IN (20, 40)").executeUpdate();
+        statistics.clear();
+
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            List<Long> ids = new ArrayList<>();
+            String cursor = null;
+            do {
+                ProductPage page = productService.getActiveProducts(ProductFilter.none(), ProductSortField.UPDATED_AT,
+                        direction, cursor, 4, false);
+                page.getItems().forEach(product -> ids.add(product.getId()));
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+
+            assertEquals(15, ids.size(), direction.name());
+            assertEquals(15, new HashSet<>(ids).size(), direction.name());
+        }
+        assertEquals(8, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void listProductsByCategoryRunsOneStatement() {
+        ProductPage page = productService.getActiveProducts(ProductFilter.category(categoryId), ProductSortField.ID,
+                Sort.Direction.ASC, null, 10, false);
+
+        assertEquals(5, page.getItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void filteredListRunsOneStatement() {
+        ProductFilter filter = new ProductFilter(List.of(1L, 2L), new BigDecimal("20"), new BigDecimal("40"),
+                "product", ProductFilter.NameMatch.STARTS_WITH);
+
+        ProductPage page = productService.getActiveProducts(filter, ProductSortField.PRICE,
+                Sort.Direction.DESC, null, 10, false);
+
+        assertEquals(List.of(new BigDecimal("40.00"), new BigDecimal("40.00"), new BigDecimal("30.00")),
+                page.getItems().stream().limit(3).map(ProductResponse::getPrice).toList());
+        assertEquals(6, page.getItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void facetsCountEachDimensionWithoutItsOwnFilter() {
+        ProductFilter filter = new ProductFilter(List.of(1L), new BigDecimal("30"), null, null,
+                ProductFilter.NameMatch.CONTAINS);
+
+        ProductFacets facets = productService.getActiveProducts(filter, ProductSortField.ID,
+                Sort.Direction.ASC, null, 10, true).getFacets();
+
+        // Prices 30, 40 and 50 in each of the three categories
+        assertEquals(List.of(3L, 3L, 3L), facets.getCategories().stream()
+                .map(ProductFacets.CategoryCount::getCount).toList());
+        // Category 1 only, across every price bucket: [0, 10) [10, 25) [25, 50) [50, 100) ... [1000, -)
+        assertEquals(List.of(0L, 2L, 2L, 1L, 0L, 0L, 0L, 0L), facets.getPrices().stream()
+                .map(ProductFacets.PriceBucketCount::getCount).toList());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void countsAreServedWithoutStatementsOnceReconciled() {
+        productCounts.reconcile();
+        statistics.clear();
+
+        assertEquals(15, productService.getActiveProductCount());
+        assertEquals(5, productCounts.forCategory(categoryId));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void exportRunsOneStatement() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        productService.exportActiveProducts(out);
+
+        assertEquals(15, out.toString(StandardCharsets.UTF_8).split("\n").length);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getProductByIdRunsOneStatement() {
+        Long id = productService.getActiveProducts(ProductFilter.none(), ProductSortField.ID, Sort.Direction.ASC,
+                        null, 1, false)
+                .getItems().get(0).getId();
+        statistics.clear();
+
+        productService.getProductById(id);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
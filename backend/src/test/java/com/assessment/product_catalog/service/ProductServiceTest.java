@@ -1,28 +1,66 @@
 package com.assessment.product_catalog.service;
 
+import com.assessment.product_catalog.cache.ProductCache;
+import com.assessment.product_catalog.cache.ProductCounts;
+import com.assessment.product_catalog.cache.ProductSnapshot;
+import com.assessment.product_catalog.dto.BulkImportResponse;
+import com.assessment.product_catalog.dto.BulkProductResult;
+import com.assessment.product_catalog.dto.PriceAdjustmentRequest;
+import com.assessment.product_catalog.dto.ProductFilter;
+import com.assessment.product_catalog.dto.ProductPage;
+import com.assessment.product_catalog.dto.ProductPatchRequest;
 import com.assessment.product_catalog.dto.ProductRequest;
 import com.assessment.product_catalog.dto.ProductResponse;
+import com.assessment.product_catalog.dto.ProductSortField;
 import com.assessment.product_catalog.entity.Category;
 import com.assessment.product_catalog.entity.Product;
+import com.assessment.product_catalog.event.ProductChangedEvent;
+import com.assessment.product_catalog.event.ProductChangedEvent.ChangeType;
+import com.assessment.product_catalog.feed.ProductChangeFeed;
 import com.assessment.product_catalog.mapper.ProductMapper;
 import com.assessment.product_catalog.repository.CategoryRepository;
 import com.assessment.product_catalog.repository.ProductRepository;
+import com.assessment.product_catalog.repository.ProductRepositoryCustom.PatchedProduct;
+import com.assessment.product_catalog.search.ProductSearchIndex;
+import com.assessment.product_catalog.search.ProductSuggester;
+import com.assessment.product_catalog.utils.InvalidPageRequestException;
+import com.assessment.product_catalog.utils.ProductCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +69,17 @@ class ProductServiceTest {
     @Mock private ProductRepository productRepository;
     @Mock private CategoryRepository categoryRepository;
     @Mock private ProductMapper productMapper;
+    @Mock private EntityManager entityManager;
+    @Spy private JsonMapper jsonMapper = JsonMapper.builder().build();
+    @Spy private ProductCache productCache = new ProductCache(100, Duration.ofMinutes(5));
+    @Mock private ProductCounts productCounts;
+    @Mock private ProductSnapshot productSnapshot;
+    @Mock private ProductChangeFeed productChangeFeed;
+    @Mock private ProductSearchIndex productSearchIndex;
+    @Mock private ProductSuggester productSuggester;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private TransactionTemplate transactionTemplate;
+    @Mock private Validator validator;
     @InjectMocks private ProductService productService;
 
     private Category category;
@@ -76,59 +125,288 @@ class ProductServiceTest {
 
     @Test
     void createProduct() {
-        when(productRepository.findByName("Laptop")).thenReturn(Optional.empty());
-        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
-        when(productMapper.toResponse(product)).thenReturn(response);
+        response.setCreatedAt(LocalDateTime.of(2026, 1, 1, 12, 0));
+        response.setUpdatedAt(response.getCreatedAt());
+        when(productRepository.upsertByName(eq("Laptop"), eq("A laptop"), eq(new BigDecimal("999.99")), eq(1L),
+                any(), any(LocalDateTime.class))).thenReturn(Optional.of(response));
 
         ProductResponse result = productService.createOrReactivateProduct(request);
 
         assertEquals("Laptop", result.getName());
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository, never()).save(any(Product.class));
+        verify(eventPublisher).publishEvent(argThat((ProductChangedEvent event) -> event.getType() == ChangeType.CREATED));
+    }
+
+    @Test
+    void createProductRejectsActiveDuplicate() {
+        when(productRepository.upsertByName(any(), any(), any(), any(), any(), any())).thenReturn(Optional.empty());
+        when(categoryRepository.existsById(1L)).thenReturn(true);
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> productService.createOrReactivateProduct(request));
+
+        assertEquals("Product with name 'Laptop' already exists", error.getMessage());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void bulkUpsertReportsEveryRow() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(categoryRepository.findAllById(any())).thenReturn(List.of(category));
+        when(productRepository.findByNameIn(any())).thenReturn(List.of(product));
+
+        ProductRequest created = new ProductRequest();
+        created.setName("Mouse");
+        created.setPrice(new BigDecimal("19.99"));
+        created.setCategoryId(1L);
+
+        ProductRequest unknownCategory = new ProductRequest();
+        unknownCategory.setName("Desk");
+        unknownCategory.setPrice(new BigDecimal("99.99"));
+        unknownCategory.setCategoryId(42L);
+
+        BulkImportResponse result = productService.bulkUpsertProducts(
+                List.of(request, created, unknownCategory, created));
+
+        assertEquals(1, result.getCreated());
+        assertEquals(1, result.getUpdated());
+        assertEquals(2, result.getFailed());
+        assertEquals(BulkProductResult.Status.UPDATED, result.getResults().get(0).getStatus());
+        assertEquals(BulkProductResult.Status.CREATED, result.getResults().get(1).getStatus());
+        assertEquals("Category not found", result.getResults().get(2).getError());
+        assertEquals("Duplicate product name in request", result.getResults().get(3).getError());
+        verify(productRepository).saveAll(argThat(products -> products.iterator().next().getName().equals("Mouse")));
+        verify(categoryRepository, never()).findById(any());
     }
 
     @Test
     void listActiveProducts() {
-        when(productRepository.findByActiveTrue()).thenReturn(List.of(product));
-        when(productMapper.toResponse(product)).thenReturn(response);
+        when(productRepository.findActivePage(ProductFilter.none(), ProductSortField.ID, Sort.Direction.ASC, null, 11))
+                .thenReturn(List.of(response));
 
-        List<ProductResponse> results = productService.getAllActiveProducts();
+        ProductPage page = productService.getActiveProducts(ProductFilter.none(), ProductSortField.ID, Sort.Direction.ASC,
+                null, 10, false);
 
-        assertEquals(1, results.size());
-        assertEquals("Laptop", results.get(0).getName());
+        assertEquals(1, page.getItems().size());
+        assertEquals("Laptop", page.getItems().get(0).getName());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void listActiveProductsReturnsCursorWhenMoreRowsExist() {
+        ProductResponse next = new ProductResponse();
+        next.setId(2L);
+        when(productRepository.findActivePage(ProductFilter.none(), ProductSortField.ID, Sort.Direction.ASC, null, 2))
+                .thenReturn(List.of(response, next));
+
+        ProductPage page = productService.getActiveProducts(ProductFilter.none(), ProductSortField.ID, Sort.Direction.ASC,
+                null, 1, false);
+
+        assertEquals(1, page.getItems().size());
+        assertNotNull(page.getNextCursor());
+
+        ProductCursor cursor = ProductCursor.decode(page.getNextCursor(), ProductSortField.ID, Sort.Direction.ASC);
+        assertEquals(1L, cursor.getId());
+    }
+
+    @Test
+    void malformedOrMismatchedCursorsAreBadRequests() {
+        String byPrice = ProductCursor.after(response, ProductSortField.PRICE, Sort.Direction.ASC).encode();
+
+        assertThrows(InvalidPageRequestException.class, () -> productService.getActiveProducts(ProductFilter.none(),
+                ProductSortField.ID, Sort.Direction.ASC, "not a cursor", 1, false));
+        assertThrows(InvalidPageRequestException.class, () -> productService.getActiveProducts(ProductFilter.none(),
+                ProductSortField.PRICE, Sort.Direction.DESC, byPrice, 1, false));
+        assertThrows(InvalidPageRequestException.class, () -> ProductSortField.fromProperty("color"));
+    }
+
+    @Test
+    void cursorsCarryANullSortKey() {
+        response.setUpdatedAt(null);
+
+        String token = ProductCursor.after(response, ProductSortField.UPDATED_AT, Sort.Direction.DESC).encode();
+        ProductCursor cursor = ProductCursor.decode(token, ProductSortField.UPDATED_AT, Sort.Direction.DESC);
+
+        assertNull(cursor.getValue());
+        assertEquals(1L, cursor.getId());
+    }
+
+    @Test
+    void exportActiveProductsWritesOneLinePerProduct() throws Exception {
+        when(productRepository.streamActive()).thenReturn(Stream.of(response, response));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        productService.exportActiveProducts(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"name\":\"Laptop\""));
     }
 
     @Test
     void getProductById() {
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(productMapper.toResponse(product)).thenReturn(response);
+        when(productRepository.findResponseById(1L)).thenReturn(Optional.of(response));
 
         ProductResponse result = productService.getProductById(1L);
 
         assertEquals(1L, result.getId());
     }
 
+    @Test
+    void getProductByIdIsServedFromCacheUntilInvalidated() {
+        when(productRepository.findResponseById(1L)).thenReturn(Optional.of(response));
+
+        productService.getProductById(1L);
+        productService.getProductById(1L);
+        verify(productRepository, times(1)).findResponseById(1L);
+
+        productCache.onProductChanged(new ProductChangedEvent(ChangeType.UPDATED, response, "testuser"));
+        productService.getProductById(1L);
+        verify(productRepository, times(2)).findResponseById(1L);
+    }
+
     @Test
     void updateProduct() {
+        runTransactions();
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
         when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(product);
         when(productMapper.toResponse(any(Product.class))).thenReturn(response);
 
-        ProductResponse result = productService.updateProduct(1L, request);
+        ProductResponse result = productService.updateProduct(1L, request, null);
 
         assertNotNull(result);
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository).saveAndFlush(any(Product.class));
+        verify(eventPublisher).publishEvent(argThat((ProductChangedEvent event) ->
+                event.getType() == ChangeType.UPDATED && event.getBefore() != null));
+    }
+
+    @Test
+    void updateProductRejectsAStaleVersion() {
+        runTransactions();
+        product.setVersion(4L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        assertThrows(StaleVersionException.class, () -> productService.updateProduct(1L, request, 3L));
+
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void unconditionalWritesRetryLostRacesAndThenGiveUp() {
+        runTransactions();
+        product.setPrice(new BigDecimal("100.00"));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.saveAndFlush(any(Product.class)))
+                .thenThrow(new OptimisticLockingFailureException("lost"))
+                .thenReturn(product);
+        when(productMapper.toResponse(any(Product.class))).thenReturn(response);
+
+        productService.adjustPrice(1L, new BigDecimal("-10"));
+
+        verify(productRepository, times(2)).saveAndFlush(product);
+
+        when(productRepository.saveAndFlush(any(Product.class))).thenThrow(new OptimisticLockingFailureException("lost"));
+
+        assertThrows(ConcurrentUpdateException.class, () -> productService.adjustPrice(1L, BigDecimal.ONE));
+        verify(productRepository, times(2 + ProductService.MAX_WRITE_ATTEMPTS)).saveAndFlush(product);
+    }
+
+    @Test
+    void adjustmentsBelowOneCentAreRejected() {
+        runTransactions();
+        product.setPrice(new BigDecimal("100.00"));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productMapper.toResponse(any(Product.class))).thenReturn(response);
+
+        assertThrows(InvalidPriceException.class, () -> productService.adjustPrice(1L, new BigDecimal("-99.9999")));
+
+        assertEquals(new BigDecimal("100.00"), product.getPrice());
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+    }
+
+    @Test
+    void adjustmentsBeyondThePriceColumnAreRejected() {
+        runTransactions();
+        product.setPrice(new BigDecimal("9999999.99"));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productMapper.toResponse(any(Product.class))).thenReturn(response);
+
+        // +1000% is eleven times the price, past 99999999.99
+        assertThrows(InvalidPriceException.class, () -> productService.adjustPrice(1L, new BigDecimal("1000")));
+
+        verify(productRepository, never()).saveAndFlush(any(Product.class));
+        try (ValidatorFactory factory = Validation.buildDefaultValidatorFactory()) {
+            PriceAdjustmentRequest request = new PriceAdjustmentRequest();
+            request.setPercent(new BigDecimal("1000.01"));
+            assertEquals(1, factory.getValidator().validate(request).size());
+            request.setPercent(new BigDecimal("1000"));
+            assertTrue(factory.getValidator().validate(request).isEmpty());
+        }
+    }
+
+    @Test
+    void patchProductPublishesThePreviousState() {
+        ProductPatchRequest patch = new ProductPatchRequest();
+        patch.setPrice(new BigDecimal("899.99"));
+        ProductResponse after = new ProductResponse();
+        after.setId(1L);
+        after.setPrice(patch.getPrice());
+        when(productRepository.patch(eq(1L), eq(patch), any(), any(), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(new PatchedProduct(response, after)));
+
+        ProductResponse result = productService.patchProduct(1L, patch, null);
+
+        assertSame(after, result);
+        verifyNoInteractions(categoryRepository);
+        verify(eventPublisher).publishEvent(argThat((ProductChangedEvent event) ->
+                event.getType() == ChangeType.UPDATED && event.getBefore() == response));
+    }
+
+    @Test
+    void patchRequestsTellAnExplicitNullDescriptionFromAMissingOne() {
+        JsonMapper mapper = JsonMapper.builder().build();
+
+        ProductPatchRequest cleared = mapper.readValue("{\"description\": null}", ProductPatchRequest.class);
+        ProductPatchRequest untouched = mapper.readValue("{\"price\": 5}", ProductPatchRequest.class);
+
+        assertTrue(cleared.includesDescription());
+        assertNull(cleared.getDescription());
+        assertFalse(untouched.includesDescription());
+    }
+
+    @Test
+    void patchProductReportsAMissingCategory() {
+        ProductPatchRequest patch = new ProductPatchRequest();
+        patch.setCategoryId(9L);
+        when(productRepository.patch(eq(1L), eq(patch), any(), any(), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
+        when(categoryRepository.existsById(9L)).thenReturn(false);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> productService.patchProduct(1L, patch, null));
+
+        assertEquals("Category not found", error.getMessage());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void deleteProduct() {
+        runTransactions();
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(product);
 
-        productService.deactivateProduct(1L);
+        productService.deactivateProduct(1L, null);
 
         assertFalse(product.getActive());
-        verify(productRepository).save(product);
+        verify(productRepository).saveAndFlush(product);
+    }
+
+    private void runTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
     }
 }
@@ -1,12 +1,26 @@
 import api from "./api";
-import type { Product, ProductRequest } from "../types";
+import type { Product, ProductPage, ProductRequest } from "../types";
 
 export const productService = {
-  getAll: async () => {
-    const response = await api.get<Product[]>("/products");
+  getPage: async (cursor?: string | null) => {
+    const response = await api.get<ProductPage>("/products", {
+      params: cursor ? { cursor } : undefined,
+    });
     return response.data;
   },
 
+  // Follows the keyset cursors until the last page
+  getAll: async () => {
+    const products: Product[] = [];
+    let cursor: string | null = null;
+    do {
+      const page: ProductPage = await productService.getPage(cursor);
+      products.push(...page.items);
+      cursor = page.nextCursor;
+    } while (cursor);
+    return products;
+  },
+
   getById: async (id: number) => {
     const response = await api.get<Product>(`/products/${id}`);
     return response.data;
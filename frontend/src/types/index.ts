@@ -19,11 +19,17 @@ export interface Product {
   updatedBy: string;
 }
 
+export interface ProductPage {
+  items: Product[];
+  nextCursor: string | null;
+}
+
 export interface Category {
   id: number;
   name: string;
   description: string;
   active: boolean;
+  productCount: number;
 }
 
 export interface ProductRequest {
@@ -0,0 +1,295 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Mixed read/write load across the product, category and auth endpoints against a catalog seeded
+ * by Seed.java. Run with Java 17+, no build needed:
+ *
+ *   java loadtest/MixedLoad.java --base http://localhost:8080 --concurrency 64 --duration 60s \
+ *        --max-id 1000000 --categories 20 --mix list=35,get=30,search=10,count=5,categories=5,create=5,update=8,login=2
+ *
+ * Without {@code --rate} every worker sends its next request as soon as the last one returns.
+ * With {@code --rate N} requests are scheduled at N per second overall, and latency is measured from
+ * the scheduled start, so a stalled server shows up in the tail instead of silently lowering the load.
+ * Prints throughput and p50/p99/p99.9 per operation; {@code --out file.json} also writes them as JSON.
+ */
+public class MixedLoad {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String base = options.getOrDefault("base", "http://localhost:8080");
+        String user = options.getOrDefault("user", "test");
+        String password = options.getOrDefault("password", "password");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "50"));
+        Duration duration = duration(options.getOrDefault("duration", "60s"));
+        Duration warmup = duration(options.getOrDefault("warmup", "15s"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        int maxId = Integer.parseInt(options.getOrDefault("max-id", "100000"));
+        int categories = Integer.parseInt(options.getOrDefault("categories", "20"));
+        Map<String, Integer> mix = mix(options.getOrDefault("mix",
+                "list=35,get=30,search=10,count=5,categories=5,create=5,update=8,login=2"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(4, concurrency / 8)))
+                .build();
+        String token = login(client, base, user, password);
+        Workload workload = new Workload(base, token, user, password, maxId, categories,
+                Long.toString(System.currentTimeMillis(), 36), mix);
+
+        System.out.printf("%s, %d workers, %s, %s warm-up, %s measured, mix %s%n", base, concurrency,
+                rate > 0 ? rate + " req/s scheduled" : "closed loop", warmup, duration, mix);
+        run(client, workload, concurrency, rate, warmup);
+        Map<String, Stats> results = run(client, workload, concurrency, rate, duration);
+
+        System.out.printf("%-12s %9s %9s %9s %9s %9s %9s %7s%n",
+                "operation", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        Stats total = new Stats();
+        StringBuilder json = new StringBuilder("{\"durationSeconds\":" + duration.toSeconds()
+                + ",\"concurrency\":" + concurrency + ",\"rate\":" + rate + ",\"operations\":{");
+        for (Map.Entry<String, Stats> entry : results.entrySet()) {
+            print(entry.getKey(), entry.getValue(), duration);
+            json.append(json.charAt(json.length() - 1) == '{' ? "" : ",")
+                    .append('"').append(entry.getKey()).append("\":").append(entry.getValue().toJson(duration));
+            total.merge(entry.getValue());
+        }
+        print("total", total, duration);
+        json.append("},\"total\":").append(total.toJson(duration)).append('}');
+
+        if (options.containsKey("out")) {
+            Files.writeString(Path.of(options.get("out")), json);
+        }
+        System.exit(0);
+    }
+
+    private static Map<String, Stats> run(HttpClient client, Workload workload, int concurrency, double rate,
+                                          Duration duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        long interval = rate > 0 ? (long) (concurrency * 1e9 / rate) : 0;
+        List<Map<String, Stats>> perWorker = new ArrayList<>();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+
+        for (int w = 0; w < concurrency; w++) {
+            Map<String, Stats> stats = workload.newStats();
+            perWorker.add(stats);
+            int worker = w;
+            workers.execute(() -> {
+                // Spread the workers' schedules evenly across one interval
+                long scheduled = start + interval * worker / concurrency;
+                for (long i = 0; ; i++) {
+                    long now = System.nanoTime();
+                    if (interval > 0) {
+                        if (scheduled > now) {
+                            LockSupport.parkNanos(scheduled - now);
+                        }
+                    } else {
+                        scheduled = now;
+                    }
+                    if (scheduled >= deadline) {
+                        break;
+                    }
+                    String operation = workload.pick();
+                    boolean ok;
+                    try {
+                        int status = client.send(workload.request(operation, worker, i),
+                                HttpResponse.BodyHandlers.discarding()).statusCode();
+                        ok = status < 400;
+                    } catch (IOException e) {
+                        ok = false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    stats.get(operation).record(System.nanoTime() - scheduled, ok);
+                    scheduled += interval;
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+
+        Map<String, Stats> merged = workload.newStats();
+        perWorker.forEach(stats -> stats.forEach((operation, s) -> merged.get(operation).merge(s)));
+        return merged;
+    }
+
+    /**
+     * Builds one request per operation. Reads hit random seeded ids and categories; updates rewrite a
+     * seeded product under its own name, and creates use names unique to this run.
+     */
+    private record Workload(String base, String token, String user, String password, int maxId, int categories,
+                            String runId, Map<String, Integer> mix) {
+
+        private static final String[] TERMS = {"laptop", "chair", "lamp", "monitor", "desk", "wireless", "smart"};
+
+        Map<String, Stats> newStats() {
+            Map<String, Stats> stats = new LinkedHashMap<>();
+            mix.keySet().forEach(operation -> stats.put(operation, new Stats()));
+            return stats;
+        }
+
+        String pick() {
+            int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+            int roll = ThreadLocalRandom.current().nextInt(total);
+            for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+                roll -= entry.getValue();
+                if (roll < 0) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException();
+        }
+
+        HttpRequest request(String operation, int worker, long sequence) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int id = random.nextInt(1, maxId + 1);
+            int category = random.nextInt(1, categories + 1);
+            String price = random.nextInt(1, 1000) + "." + random.nextInt(10, 100);
+            return switch (operation) {
+                case "list" -> get(random.nextBoolean()
+                        ? "/api/products?size=50"
+                        : "/api/products?categoryId=" + category + "&sort=price&size=50");
+                case "get" -> get("/api/products/" + id);
+                case "search" -> get("/api/products/search?q=" + TERMS[random.nextInt(TERMS.length)] + "&size=20");
+                case "count" -> get("/api/products/count");
+                case "categories" -> get("/api/categories");
+                case "create" -> send("POST", "/api/products", product(
+                        "load-" + runId + "-" + worker + "-" + sequence, price, category));
+                case "update" -> send("PUT", "/api/products/" + id, product("Product " + id, price, category));
+                case "login" -> HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .timeout(Duration.ofSeconds(30))
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"username\":\"" + user + "\",\"password\":\"" + password + "\"}"))
+                        .build();
+                default -> throw new IllegalArgumentException("Unknown operation " + operation);
+            };
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create(base + path))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+        }
+
+        private HttpRequest send(String method, String path, String body) {
+            return HttpRequest.newBuilder(URI.create(base + path))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .method(method, HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+
+        private static String product(String name, String price, int category) {
+            return "{\"name\":\"" + name + "\",\"description\":\"Written by the load test\",\"price\":" + price
+                    + ",\"categoryId\":" + category + "}";
+        }
+    }
+
+    private static Map<String, Integer> mix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] pair = part.split("=");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                mix.put(pair[0].trim(), weight);
+            }
+        }
+        return mix;
+    }
+
+    private static void print(String operation, Stats stats, Duration duration) {
+        System.out.printf("%-12s %9d %9.0f %9.2f %9.2f %9.2f %9.2f %7d%n", operation, stats.count,
+                stats.count / (double) duration.toSeconds(), stats.percentile(0.50), stats.percentile(0.99),
+                stats.percentile(0.999), stats.percentile(1.0), stats.errors);
+    }
+
+    private static String login(HttpClient client, String base, String user, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + user + "\",\"password\":\"" + password + "\"}"))
+                .build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        int start = body.indexOf("\"token\":\"") + 9;
+        if (start < 9) {
+            throw new IllegalStateException("Login failed: " + body);
+        }
+        return body.substring(start, body.indexOf('"', start));
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return options;
+    }
+
+    private static Duration duration(String value) {
+        return value.endsWith("m")
+                ? Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)))
+                : Duration.ofSeconds(Long.parseLong(value.replace("s", "")));
+    }
+
+    private static final class Stats {
+
+        long[] latencies = new long[1024];
+        int count;
+        long errors;
+
+        void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void merge(Stats other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+
+        double percentile(double p) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(count - 1, Math.ceil(p * count) - 1);
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        String toJson(Duration duration) {
+            return String.format(Locale.ROOT,
+                    "{\"requests\":%d,\"rps\":%.1f,\"p50\":%.3f,\"p99\":%.3f,\"p999\":%.3f,\"max\":%.3f,\"errors\":%d}",
+                    count, count / (double) duration.toSeconds(), percentile(0.5), percentile(0.99),
+                    percentile(0.999), percentile(1.0), errors);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load on the product read endpoints: each worker sends a request, waits for the
+ * answer and sends the next, cycling through the endpoints. Run with Java 17+, no build needed:
+ *
+ *   java loadtest/ReadLoad.java --base http://localhost:8080 --user test --password password \
+ *        --concurrency 200 --duration 30s
+ *
+ * Prints throughput, latency percentiles and failures per endpoint after a warm-up.
+ */
+public class ReadLoad {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String base = options.getOrDefault("base", "http://localhost:8080");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "50"));
+        Duration duration = duration(options.getOrDefault("duration", "30s"));
+        Duration warmup = duration(options.getOrDefault("warmup", "10s"));
+        int maxId = Integer.parseInt(options.getOrDefault("max-id", "1000"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(4, concurrency / 8)))
+                .build();
+        String token = options.containsKey("token")
+                ? options.get("token")
+                : login(client, base, options.getOrDefault("user", "test"), options.getOrDefault("password", "password"));
+
+        List<String> endpoints = List.of(
+                "/api/products?size=50",
+                "/api/products?categoryId=1&sort=price&size=50",
+                "/api/products/{id}",
+                "/api/products/count",
+                "/api/categories");
+
+        System.out.printf("%s, %d workers, %s warm-up, %s measured%n", base, concurrency, warmup, duration);
+        run(client, base, token, endpoints, concurrency, warmup, maxId);
+        Map<String, Stats> results = run(client, base, token, endpoints, concurrency, duration, maxId);
+
+        System.out.printf("%-48s %9s %9s %9s %9s %9s %9s %7s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors");
+        long total = 0;
+        for (Map.Entry<String, Stats> entry : results.entrySet()) {
+            Stats stats = entry.getValue();
+            total += stats.count;
+            System.out.printf("%-48s %9d %9.0f %9.2f %9.2f %9.2f %9.2f %7d%n", entry.getKey(), stats.count,
+                    stats.count / (double) duration.toSeconds(), stats.percentile(0.50), stats.percentile(0.95),
+                    stats.percentile(0.99), stats.percentile(1.0), stats.errors);
+        }
+        System.out.printf("%-48s %9d %9.0f%n", "total", total, total / (double) duration.toSeconds());
+        System.exit(0);
+    }
+
+    private static Map<String, Stats> run(HttpClient client, String base, String token, List<String> endpoints,
+                                          int concurrency, Duration duration, int maxId) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Map<String, Stats>> perWorker = new ArrayList<>();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+
+        for (int w = 0; w < concurrency; w++) {
+            Map<String, Stats> stats = new LinkedHashMap<>();
+            endpoints.forEach(endpoint -> stats.put(endpoint, new Stats()));
+            perWorker.add(stats);
+            int offset = w;
+            workers.execute(() -> {
+                for (int i = offset; System.nanoTime() < deadline; i++) {
+                    String endpoint = endpoints.get(i % endpoints.size());
+                    String path = endpoint.replace("{id}",
+                            String.valueOf(ThreadLocalRandom.current().nextInt(1, maxId + 1)));
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(base + path))
+                            .header("Authorization", "Bearer " + token)
+                            .timeout(Duration.ofSeconds(30))
+                            .build();
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        ok = status < 400;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    stats.get(endpoint).record(System.nanoTime() - start, ok);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+
+        Map<String, Stats> merged = new LinkedHashMap<>();
+        endpoints.forEach(endpoint -> merged.put(endpoint, new Stats()));
+        perWorker.forEach(stats -> stats.forEach((endpoint, s) -> merged.get(endpoint).merge(s)));
+        return merged;
+    }
+
+    private static String login(HttpClient client, String base, String user, String password) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + user + "\",\"password\":\"" + password + "\"}"))
+                .build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        int start = body.indexOf("\"token\":\"") + 9;
+        if (start < 9) {
+            throw new IllegalStateException("Login failed: " + body);
+        }
+        return body.substring(start, body.indexOf('"', start));
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return options;
+    }
+
+    private static Duration duration(String value) {
+        return value.endsWith("m")
+                ? Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)))
+                : Duration.ofSeconds(Long.parseLong(value.replace("s", "")));
+    }
+
+    private static final class Stats {
+
+        long[] latencies = new long[1024];
+        int count;
+        long errors;
+
+        void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void merge(Stats other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+
+        double percentile(double p) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(count - 1, Math.ceil(p * count) - 1);
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
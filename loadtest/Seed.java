@@ -0,0 +1,110 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fills the catalog with a reproducible synthetic dataset, generated inside Postgres so a million
+ * rows load in one pass without shipping them over the wire. Needs only the JDBC driver:
+ *
+ *   java -cp ~/.m2/repository/org/postgresql/postgresql/42.7.9/postgresql-42.7.9.jar loadtest/Seed.java \
+ *        --url jdbc:postgresql://localhost:5432/product_catalog --db-user postgres --db-password postgres \
+ *        --categories 20 --products 1000000
+ *
+ * Replaces every category and product and adds the test/password user. The tables must already exist,
+ * so start the backend against the database once first. {@code --create-database true} only drops and
+ * recreates the database named in the URL, for a clean start.
+ */
+public class Seed {
+
+    /** Bcrypt hash of "password", the same user the README seeds. */
+    private static final String TEST_PASSWORD = "$2a$10$dXJ3SW6G7P50lGmMkkmwe.20cQQubK3.HZWzG3YB1tlRy.fqvM/BG";
+
+    private static final int BATCH = 100_000;
+
+    public static void main(String[] args) throws SQLException {
+        Map<String, String> options = parse(args);
+        String url = options.getOrDefault("url", "jdbc:postgresql://localhost:5432/product_catalog");
+        String user = options.getOrDefault("db-user", "postgres");
+        String password = options.getOrDefault("db-password", "postgres");
+
+        if (Boolean.parseBoolean(options.getOrDefault("create-database", "false"))) {
+            createDatabase(url, user, password);
+            return;
+        }
+
+        int categories = Integer.parseInt(options.getOrDefault("categories", "20"));
+        int products = Integer.parseInt(options.getOrDefault("products", "100000"));
+        double seed = Double.parseDouble(options.getOrDefault("seed", "0.42"));
+
+        long start = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("SELECT setseed(" + seed + ")");
+            statement.execute("TRUNCATE products, categories RESTART IDENTITY CASCADE");
+
+            try (PreparedStatement insert = connection.prepareStatement("""
+                    INSERT INTO categories (name, description, active, created_at, updated_at, created_by, updated_by)
+                    SELECT 'Category ' || g, 'Generated category ' || g, true, now(), now(), 'seed', 'seed'
+                    FROM generate_series(1, ?) g""")) {
+                insert.setInt(1, categories);
+                insert.executeUpdate();
+            }
+
+            // Descriptions draw from a small vocabulary so search and name filters have realistic hits
+            try (PreparedStatement insert = connection.prepareStatement("""
+                    INSERT INTO products (id, name, description, price, category_id, active,
+                                          created_at, updated_at, created_by, updated_by)
+                    SELECT g, 'Product ' || g,
+                           (ARRAY['laptop','chair','lamp','monitor','desk','kettle','phone','speaker','camera','table'])
+                               [1 + (g % 10)] || ' ' ||
+                           (ARRAY['wireless','ergonomic','compact','premium','portable','smart','classic'])
+                               [1 + (g % 7)] || ' ' || md5(g::text),
+                           round((1 + random() * 999)::numeric, 2),
+                           1 + (g % ?), true,
+                           now() - g * interval '1 second', now() - g * interval '1 second', 'seed', 'seed'
+                    FROM generate_series(?, ?) g""")) {
+                for (int from = 1; from <= products; from += BATCH) {
+                    int to = Math.min(products, from + BATCH - 1);
+                    insert.setInt(1, categories);
+                    insert.setInt(2, from);
+                    insert.setInt(3, to);
+                    insert.executeUpdate();
+                    System.out.printf("products %,d / %,d%n", to, products);
+                }
+            }
+            // Ids were assigned directly, so move the sequence past them
+            statement.execute("SELECT setval('products_seq', " + Math.max(1, products) + ")");
+
+            statement.execute("""
+                    INSERT INTO catalog_users (active, created_at, last_login, password, role, username, token_version)
+                    VALUES (true, now(), now(), '%s', 'user', 'test', 0)
+                    ON CONFLICT (username) DO NOTHING""".formatted(TEST_PASSWORD));
+            statement.execute("ANALYZE categories, products");
+        }
+        System.out.printf("Seeded %,d categories and %,d products in %.1fs%n",
+                categories, products, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static void createDatabase(String url, String user, String password) throws SQLException {
+        int slash = url.lastIndexOf('/');
+        String database = url.substring(slash + 1).replaceFirst("\\?.*", "");
+        try (Connection connection = DriverManager.getConnection(url.substring(0, slash + 1) + "postgres", user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS \"" + database + "\" WITH (FORCE)");
+            statement.execute("CREATE DATABASE \"" + database + "\"");
+        }
+        System.out.println("Created database " + database);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,218 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Opens many idle subscriptions to the product change stream, then updates one product a few times
+ * and measures how long each change takes to reach every subscriber. Run with Java 17+ against an
+ * otherwise idle node, since every change on the stream counts as one of the test's writes:
+ *
+ *   java loadtest/SseSubscribers.java --base http://localhost:8080 --subscribers 5000 --writes 10
+ *
+ * Prints connect times, delivery latency percentiles and the backend's live threads and heap before
+ * and after connecting. Each subscriber is a TCP connection on both ends, so raise {@code ulimit -n}.
+ */
+public class SseSubscribers {
+
+    private static final Pattern FIELD = Pattern.compile("\"(name|categoryId|description)\":(\"(?:[^\"\\\\]|\\\\.)*\"|\\d+|null)");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String base = options.getOrDefault("base", "http://localhost:8080");
+        int count = Integer.parseInt(options.getOrDefault("subscribers", "2000"));
+        int connectRate = Integer.parseInt(options.getOrDefault("connect-rate", "500"));
+        int writes = Integer.parseInt(options.getOrDefault("writes", "10"));
+        long productId = Long.parseLong(options.getOrDefault("product-id", "1"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        String token = options.containsKey("token")
+                ? options.get("token")
+                : login(client, base, options.getOrDefault("user", "test"), options.getOrDefault("password", "password"));
+
+        System.out.printf("before: %s%n", serverState(client, base, token));
+
+        List<Subscriber> subscribers = new ArrayList<>(count);
+        AtomicInteger failed = new AtomicInteger();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            Subscriber subscriber = new Subscriber(writes);
+            subscribers.add(subscriber);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/products/changes/stream"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Accept", "text/event-stream")
+                    .build();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(subscriber))
+                    .whenComplete((response, error) -> {
+                        if (error != null || response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                        }
+                    });
+            subscriber.sentAt = sent;
+            // Pace the connects so the test measures holding subscriptions, not an accept storm
+            long due = start + (long) ((i + 1) * 1e9 / connectRate);
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+            }
+        }
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+        while (connected(subscribers) + failed.get() < count && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        System.out.printf("connected %d of %d in %.1fs, %d failed; connect p50 %.1f ms, p99 %.1f ms%n",
+                connected(subscribers), count, (System.nanoTime() - start) / 1e9, failed.get(),
+                percentile(connectTimes(subscribers), 0.50), percentile(connectTimes(subscribers), 0.99));
+        Thread.sleep(2000);
+        System.out.printf("holding: %s%n", serverState(client, base, token));
+
+        String product = send(client, HttpRequest.newBuilder(URI.create(base + "/api/products/" + productId))
+                .header("Authorization", "Bearer " + token).build());
+        long[] writtenAt = new long[writes];
+        for (int k = 0; k < writes; k++) {
+            writtenAt[k] = System.nanoTime();
+            send(client, HttpRequest.newBuilder(URI.create(base + "/api/products/" + productId))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(update(product, 1000 + k)))
+                    .build());
+            Thread.sleep(1000);
+        }
+        Thread.sleep(3000);
+
+        long[] latencies = new long[count * writes];
+        int received = 0;
+        for (Subscriber subscriber : subscribers) {
+            for (int k = 0; k < Math.min(writes, subscriber.changes.get()); k++) {
+                latencies[received++] = subscriber.arrivals[k] - writtenAt[k];
+            }
+        }
+        latencies = Arrays.copyOf(latencies, received);
+        System.out.printf("delivered %d of %d changes; latency p50 %.1f ms, p99 %.1f ms, p99.9 %.1f ms, max %.1f ms%n",
+                received, count * writes, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), percentile(latencies, 1.0));
+        System.exit(0);
+    }
+
+    /**
+     * Counts {@code change} events and notes when each arrived; comments and heartbeats are ignored.
+     */
+    private static final class Subscriber implements Flow.Subscriber<String> {
+
+        final long[] arrivals;
+        final AtomicInteger changes = new AtomicInteger();
+        volatile long sentAt;
+        volatile long connectedAt;
+
+        Subscriber(int expected) {
+            this.arrivals = new long[expected];
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            connectedAt = System.nanoTime();
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.equals("event:change")) {
+                int index = changes.getAndIncrement();
+                if (index < arrivals.length) {
+                    arrivals[index] = System.nanoTime();
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    private static String update(String product, int price) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        Matcher matcher = FIELD.matcher(product);
+        while (matcher.find()) {
+            fields.putIfAbsent(matcher.group(1), matcher.group(2));
+        }
+        return "{\"name\":" + fields.get("name") + ",\"description\":" + fields.getOrDefault("description", "null")
+                + ",\"categoryId\":" + fields.get("categoryId") + ",\"price\":" + price + "}";
+    }
+
+    private static String serverState(HttpClient client, String base, String token) throws Exception {
+        return "subscribers " + metric(client, base, token, "catalog.changes.subscribers")
+                + ", live threads " + metric(client, base, token, "jvm.threads.live")
+                + ", heap used " + Math.round(metric(client, base, token, "jvm.memory.used?tag=area:heap") / 1048576) + " MiB";
+    }
+
+    private static double metric(HttpClient client, String base, String token, String name) throws Exception {
+        String body = send(client, HttpRequest.newBuilder(URI.create(base + "/actuator/metrics/" + name))
+                .header("Authorization", "Bearer " + token).build());
+        Matcher value = Pattern.compile("\"value\":([0-9.E+-]+)").matcher(body);
+        return value.find() ? Double.parseDouble(value.group(1)) : Double.NaN;
+    }
+
+    private static int connected(List<Subscriber> subscribers) {
+        return (int) subscribers.stream().filter(subscriber -> subscriber.connectedAt != 0).count();
+    }
+
+    private static long[] connectTimes(List<Subscriber> subscribers) {
+        return subscribers.stream().filter(subscriber -> subscriber.connectedAt != 0)
+                .mapToLong(subscriber -> subscriber.connectedAt - subscriber.sentAt).toArray();
+    }
+
+    private static double percentile(long[] nanos, double p) {
+        if (nanos.length == 0) {
+            return 0;
+        }
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static String send(HttpClient client, HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(request.uri() + " answered " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private static String login(HttpClient client, String base, String user, String password) throws Exception {
+        String body = send(client, HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + user + "\",\"password\":\"" + password + "\"}"))
+                .build());
+        int start = body.indexOf("\"token\":\"") + 9;
+        return body.substring(start, body.indexOf('"', start));
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return options;
+    }
+}
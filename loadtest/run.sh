@@ -0,0 +1,73 @@
+#!/usr/bin/env bash
+# End-to-end benchmark on one box: recreates the database, lets the backend create the schema,
+# seeds it with Seed.java, restarts the backend so its in-memory state loads the seeded rows, then
+# drives MixedLoad.java and keeps the report, the JSON results and the backend log.
+#
+#   PRODUCTS=1000000 CATEGORIES=20 CONCURRENCY=64 DURATION=120s loadtest/run.sh
+#
+# Everything else MixedLoad accepts goes through LOAD_ARGS, e.g. LOAD_ARGS="--rate 300".
+# Database settings default to backend/.env. Needs Java 17+, curl and a local Postgres; no network.
+set -euo pipefail
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+cd "$ROOT/backend"
+set -a
+# shellcheck disable=SC1091
+[ -f .env ] && . ./.env
+set +a
+
+PRODUCTS=${PRODUCTS:-100000}
+CATEGORIES=${CATEGORIES:-20}
+CONCURRENCY=${CONCURRENCY:-50}
+DURATION=${DURATION:-60s}
+WARMUP=${WARMUP:-15s}
+MIX=${MIX:-list=35,get=30,search=10,count=5,categories=5,create=5,update=8,login=2}
+PORT=${PORT:-8080}
+JAVA_OPTS=${JAVA_OPTS:-}
+RESULTS=${RESULTS:-$ROOT/loadtest/results/$(date +%Y%m%d-%H%M%S)}
+
+WAR=target/product-catalog-0.0.1-SNAPSHOT.war
+[ -f "$WAR" ] || ./mvnw -q -o package -DskipTests
+PGJAR=$(find "${HOME}/.m2/repository/org/postgresql/postgresql" -name 'postgresql-*.jar' | sort | tail -1)
+mkdir -p "$RESULTS"
+
+seed() {
+  java -cp "$PGJAR" "$ROOT/loadtest/Seed.java" --url "$PSQLDB_URL" --db-user "$PSQLDB_USER" \
+       --db-password "$PSQLDB_PASS" "$@"
+}
+
+APP_PID=
+start_backend() {
+  # shellcheck disable=SC2086
+  java $JAVA_OPTS -jar "$WAR" --server.port="$PORT" >>"$RESULTS/backend.log" 2>&1 &
+  APP_PID=$!
+  for _ in $(seq 1 180); do
+    if curl -s -o /dev/null "http://localhost:$PORT/api/auth/login"; then
+      return
+    fi
+    kill -0 "$APP_PID" 2>/dev/null || { echo "Backend exited, see $RESULTS/backend.log" >&2; exit 1; }
+    sleep 1
+  done
+  echo "Backend did not start, see $RESULTS/backend.log" >&2
+  exit 1
+}
+stop_backend() {
+  if [ -n "$APP_PID" ]; then
+    kill "$APP_PID" 2>/dev/null || true
+    wait "$APP_PID" 2>/dev/null || true
+    APP_PID=
+  fi
+}
+trap stop_backend EXIT
+
+seed --create-database true
+start_backend
+stop_backend
+seed --categories "$CATEGORIES" --products "$PRODUCTS" | tee "$RESULTS/seed.txt"
+start_backend
+
+# shellcheck disable=SC2086
+java "$ROOT/loadtest/MixedLoad.java" --base "http://localhost:$PORT" --concurrency "$CONCURRENCY" \
+     --duration "$DURATION" --warmup "$WARMUP" --max-id "$PRODUCTS" --categories "$CATEGORIES" --mix "$MIX" \
+     --out "$RESULTS/results.json" ${LOAD_ARGS:-} | tee "$RESULTS/report.txt"
+echo "Results in $RESULTS"